@@ -0,0 +1,28 @@
+package org.sotorrent.stringsimilarity.edit;
+
+/*
+ * Entry point for the SIMD variants of the blocked bit-parallel kernels (Java 17 version, see the Java 11 version in
+ * src for the fallback).
+ *
+ * The incubator module jdk.incubator.vector is only resolved if the application is started with
+ * --add-modules jdk.incubator.vector. VectorizedBitParallel is only loaded if the module is present, otherwise
+ * BitParallel uses its scalar kernels.
+ */
+final class VectorKernels {
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    private static final int MIN_WORDS = AVAILABLE ? VectorizedBitParallel.minWords() : Integer.MAX_VALUE;
+
+    private VectorKernels() {}
+
+    static boolean supports(int words) {
+        return words >= MIN_WORDS;
+    }
+
+    static int levenshteinDistance(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        return VectorizedBitParallel.levenshteinDistance(pattern, text, textLength, workspace);
+    }
+
+    static int longestCommonSubsequenceLength(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        return VectorizedBitParallel.longestCommonSubsequenceLength(pattern, text, textLength, workspace);
+    }
+}
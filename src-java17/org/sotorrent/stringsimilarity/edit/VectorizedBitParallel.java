@@ -0,0 +1,142 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/*
+ * SIMD variants of the blocked bit-parallel kernels (see BitParallel) based on the Vector API.
+ *
+ * In the blocked kernels, word w of text position j depends on word w of position j-1 (vertical deltas) and on word
+ * w-1 of position j (carries). All words on an anti-diagonal w+j=d are therefore independent and are processed in the
+ * lanes of one vector. The carries leaving word w are stored at index w+1 and read by word w+1 on the next
+ * anti-diagonal; the chunks of a diagonal are processed from the highest word down, so that no carry is overwritten
+ * before it has been read. The arrays are padded by one vector on both sides to avoid masked loads and stores.
+ * A word is done once it reaches the last text position, its contribution to the result is taken at that point.
+ * Pays off for long patterns only (several words per lane count, see minWords()).
+ *
+ * See paper Hyyro04: "Bit-parallel LCS-length computation revisited"
+ */
+final class VectorizedBitParallel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private VectorizedBitParallel() {}
+
+    // minimum number of pattern words for which the vectorized kernels are used
+    static int minWords() {
+        return LANES < 2 ? Integer.MAX_VALUE : 4 * LANES;
+    }
+
+    static int levenshteinDistance(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        long[] masks = pattern.masks();
+        int words = pattern.words();
+        int length = words + 2 * LANES; // word w is stored at index LANES + w
+        long[] vp = workspace.vector(0, length);
+        long[] vn = workspace.vector(1, length);
+        long[] hpOut = workspace.vector(2, length); // hpOut[LANES + w + 1]: horizontal positive delta leaving word w
+        long[] hnOut = workspace.vector(3, length);
+        long[] pm = workspace.vector(4, length); // match masks of the current diagonal
+        Arrays.fill(vp, 0, length, ~0L);
+        Arrays.fill(vn, 0, length, 0L);
+        int dist = textLength; // D[0][n]
+
+        for (int d=0; d<textLength+words-1; d++) {
+            int wordFrom = Math.max(0, d - textLength + 1);
+            int wordTo = Math.min(words - 1, d);
+            workspace.charge((long) (wordTo - wordFrom + 1) * PatternMasks.WORD_SIZE);
+            for (int word=wordFrom; word<=wordTo; word++) {
+                pm[LANES + word] = masks[text[d-word] * words + word];
+            }
+            hpOut[LANES] = 1L; // first row: D[0][j] = j
+            hnOut[LANES] = 0L;
+
+            // start is the (padded) index of the lowest lane, lanes below wordFrom belong to words that are already
+            // done and only produce garbage that is never read
+            for (int start=wordTo+1; start>wordFrom; start-=LANES) {
+                LongVector pmVector = LongVector.fromArray(SPECIES, pm, start);
+                LongVector vpVector = LongVector.fromArray(SPECIES, vp, start);
+                LongVector vnVector = LongVector.fromArray(SPECIES, vn, start);
+                LongVector hpIn = LongVector.fromArray(SPECIES, hpOut, start);
+                LongVector hnIn = LongVector.fromArray(SPECIES, hnOut, start);
+
+                LongVector x = pmVector.or(hnIn);
+                LongVector d0 = x.and(vpVector).add(vpVector).lanewise(VectorOperators.XOR, vpVector).or(x).or(vnVector);
+                LongVector hp = vnVector.or(d0.or(vpVector).not());
+                LongVector hn = d0.and(vpVector);
+
+                hp.lanewise(VectorOperators.LSHR, 63).intoArray(hpOut, start+1);
+                hn.lanewise(VectorOperators.LSHR, 63).intoArray(hnOut, start+1);
+                hp = hp.lanewise(VectorOperators.LSHL, 1).or(hpIn);
+                hn = hn.lanewise(VectorOperators.LSHL, 1).or(hnIn);
+
+                hn.or(d0.or(hp).not()).intoArray(vp, start);
+                hp.and(d0).intoArray(vn, start);
+            }
+
+            if (d - wordFrom == textLength - 1) {
+                // word reached the last column: D[m][n] = D[0][n] + sum of the vertical deltas in the last column
+                long valid = validBits(pattern, wordFrom);
+                dist += Long.bitCount(vp[LANES + wordFrom] & valid) - Long.bitCount(vn[LANES + wordFrom] & valid);
+            }
+        }
+
+        return dist;
+    }
+
+    static int longestCommonSubsequenceLength(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        long[] masks = pattern.masks();
+        int words = pattern.words();
+        int length = words + 2 * LANES; // word w is stored at index LANES + w
+        long[] s = workspace.vector(0, length);
+        long[] carryOut = workspace.vector(1, length); // carryOut[LANES + w + 1]: carry of the addition leaving word w
+        long[] pm = workspace.vector(2, length);
+        Arrays.fill(s, 0, length, ~0L);
+        int lcsLength = 0;
+
+        for (int d=0; d<textLength+words-1; d++) {
+            int wordFrom = Math.max(0, d - textLength + 1);
+            int wordTo = Math.min(words - 1, d);
+            workspace.charge((long) (wordTo - wordFrom + 1) * PatternMasks.WORD_SIZE);
+            for (int word=wordFrom; word<=wordTo; word++) {
+                pm[LANES + word] = masks[text[d-word] * words + word];
+            }
+            carryOut[LANES] = 0L;
+
+            // start is the (padded) index of the lowest lane, lanes below wordFrom belong to words that are already
+            // done and only produce garbage that is never read
+            for (int start=wordTo+1; start>wordFrom; start-=LANES) {
+                LongVector sVector = LongVector.fromArray(SPECIES, s, start);
+                LongVector carryIn = LongVector.fromArray(SPECIES, carryOut, start);
+                LongVector u = sVector.and(LongVector.fromArray(SPECIES, pm, start));
+
+                // sum = s + carry + u with carry out
+                LongVector withCarry = sVector.add(carryIn);
+                LongVector sum = withCarry.add(u);
+                carry(sVector, carryIn, withCarry).or(carry(withCarry, u, sum)).intoArray(carryOut, start+1);
+
+                sum.or(sVector.sub(u)).intoArray(s, start);
+            }
+
+            if (d - wordFrom == textLength - 1) {
+                // word reached the last column
+                lcsLength += Long.bitCount(~s[LANES + wordFrom] & validBits(pattern, wordFrom));
+            }
+        }
+
+        return lcsLength;
+    }
+
+    // carry out of the unsigned addition a + b = sum (0 or 1 per lane)
+    private static LongVector carry(LongVector a, LongVector b, LongVector sum) {
+        return a.and(b).or(a.or(b).and(sum.not())).lanewise(VectorOperators.LSHR, 63);
+    }
+
+    // bits of the word that belong to the pattern
+    private static long validBits(PatternMasks pattern, int word) {
+        int count = Math.min(PatternMasks.WORD_SIZE, pattern.length() - word * PatternMasks.WORD_SIZE);
+        return count == PatternMasks.WORD_SIZE ? ~0L : (1L << count) - 1;
+    }
+}
@@ -0,0 +1,34 @@
+package org.sotorrent.stringsimilarity.set;
+
+/*
+ * Entry point for the SIMD variants of the set intersection (Java 17 version, see the Java 11 version in src for the
+ * fallback).
+ *
+ * The incubator module jdk.incubator.vector is only resolved if the application is started with
+ * --add-modules jdk.incubator.vector. VectorizedIntersection is only loaded if the module is present, otherwise
+ * Intersection uses its scalar merge step.
+ */
+final class VectorKernels {
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    private static final int MIN_LONG_LENGTH = AVAILABLE ? VectorizedIntersection.minLongLength() : Integer.MAX_VALUE;
+    private static final int MIN_INT_LENGTH = AVAILABLE ? VectorizedIntersection.minIntLength() : Integer.MAX_VALUE;
+
+    private VectorKernels() {}
+
+    // length: size of the smaller set
+    static boolean supportsLongs(int length) {
+        return length >= MIN_LONG_LENGTH;
+    }
+
+    static boolean supportsInts(int length) {
+        return length >= MIN_INT_LENGTH;
+    }
+
+    static int intersectionSize(long[] s1, long[] s2) {
+        return VectorizedIntersection.intersectionSize(s1, s2);
+    }
+
+    static int intersectionSize(int[] s1, int[] s2) {
+        return VectorizedIntersection.intersectionSize(s1, s2);
+    }
+}
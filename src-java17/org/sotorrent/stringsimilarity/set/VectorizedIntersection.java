@@ -0,0 +1,85 @@
+package org.sotorrent.stringsimilarity.set;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * SIMD variant of the merge step in Intersection based on the Vector API.
+ *
+ * Both sets are processed in blocks of one vector. Each element of the current block of s1 is broadcast and compared
+ * with all lanes of the current block of s2. Since the elements of both sets are distinct, each lane of s2 matches at
+ * most one element of s1, so the number of lanes in the union of the match masks is the size of the intersection of
+ * the two blocks. Then the block with the smaller maximum (or both) is advanced: all its elements are smaller than the
+ * following elements of the other set, so no pair of matching elements is missed or counted twice. The remaining
+ * elements (less than one block in one of the sets) are intersected with the scalar merge step.
+ *
+ * See paper Lemire16: "SIMD compression and the intersection of sorted integers"
+ */
+final class VectorizedIntersection {
+    private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int LONG_LANES = LONG_SPECIES.length();
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int INT_LANES = INT_SPECIES.length();
+
+    private VectorizedIntersection() {}
+
+    // minimum size of the smaller set of longs for which the vectorized intersection is used
+    static int minLongLength() {
+        return LONG_LANES < 2 ? Integer.MAX_VALUE : 2 * LONG_LANES;
+    }
+
+    // minimum size of the smaller set of ints for which the vectorized intersection is used
+    static int minIntLength() {
+        return INT_LANES < 2 ? Integer.MAX_VALUE : 2 * INT_LANES;
+    }
+
+    static int intersectionSize(long[] s1, long[] s2) {
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i + LONG_LANES <= s1.length && j + LONG_LANES <= s2.length) {
+            LongVector block2 = LongVector.fromArray(LONG_SPECIES, s2, j);
+            VectorMask<Long> matches = block2.eq(s1[i]);
+            for (int k=1; k<LONG_LANES; k++) {
+                matches = matches.or(block2.eq(s1[i+k]));
+            }
+            intersection += matches.trueCount();
+
+            long max1 = s1[i + LONG_LANES - 1];
+            long max2 = s2[j + LONG_LANES - 1];
+            if (max1 <= max2) {
+                i += LONG_LANES;
+            }
+            if (max2 <= max1) {
+                j += LONG_LANES;
+            }
+        }
+        return intersection + Intersection.mergeSize(s1, i, s2, j);
+    }
+
+    static int intersectionSize(int[] s1, int[] s2) {
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i + INT_LANES <= s1.length && j + INT_LANES <= s2.length) {
+            IntVector block2 = IntVector.fromArray(INT_SPECIES, s2, j);
+            VectorMask<Integer> matches = block2.eq(s1[i]);
+            for (int k=1; k<INT_LANES; k++) {
+                matches = matches.or(block2.eq(s1[i+k]));
+            }
+            intersection += matches.trueCount();
+
+            int max1 = s1[i + INT_LANES - 1];
+            int max2 = s2[j + INT_LANES - 1];
+            if (max1 <= max2) {
+                i += INT_LANES;
+            }
+            if (max2 <= max1) {
+                j += INT_LANES;
+            }
+        }
+        return intersection + Intersection.mergeSize(s1, i, s2, j);
+    }
+}
@@ -0,0 +1,81 @@
+package org.sotorrent.stringsimilarity;
+
+import java.util.Arrays;
+
+/*
+ * Multiset of primitive 64-bit keys (see Tokenization.nGramKeys()), stored as sorted distinct keys with their counts.
+ * Built by counting the keys in a LongIntCounter and freezing it.
+ *
+ * Because the keys are sorted, the set-based and profile-based metrics compare two multisets with a single merge
+ * step, without hashing and without one object per nGram.
+ * The arrays returned by keys() and counts() are shared and must not be modified.
+ */
+public final class KeyMultiset {
+    private final long[] keys; // sorted, distinct
+    private final int[] counts; // counts[i] is the multiplicity of keys[i]
+    private final int size; // sum of counts
+
+    KeyMultiset(long[] keys, int[] counts, int size) {
+        this.keys = keys;
+        this.counts = counts;
+        this.size = size;
+    }
+
+    // multiset of the given keys (in any order)
+    public static KeyMultiset of(long[] keys) {
+        LongIntCounter counter = new LongIntCounter(keys.length);
+        for (long key : keys) {
+            counter.add(key);
+        }
+        return counter.freeze();
+    }
+
+    // sum of two multisets (merge step), e.g. of the segments of a large input
+    static KeyMultiset sum(KeyMultiset multiset1, KeyMultiset multiset2) {
+        long[] keys1 = multiset1.keys;
+        long[] keys2 = multiset2.keys;
+        long[] keys = new long[keys1.length + keys2.length];
+        int[] counts = new int[keys.length];
+        int length = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys1.length || j < keys2.length) {
+            if (j == keys2.length || (i < keys1.length && keys1[i] < keys2[j])) {
+                keys[length] = keys1[i];
+                counts[length++] = multiset1.counts[i++];
+            } else if (i == keys1.length || keys1[i] > keys2[j]) {
+                keys[length] = keys2[j];
+                counts[length++] = multiset2.counts[j++];
+            } else {
+                keys[length] = keys1[i];
+                counts[length++] = multiset1.counts[i++] + multiset2.counts[j++];
+            }
+        }
+        return new KeyMultiset(Arrays.copyOf(keys, length), Arrays.copyOf(counts, length),
+                multiset1.size + multiset2.size);
+    }
+
+    // sorted distinct keys (the element set)
+    public long[] keys() {
+        return keys;
+    }
+
+    // counts of the distinct keys
+    public int[] counts() {
+        return counts;
+    }
+
+    public int distinctCount() {
+        return keys.length;
+    }
+
+    // number of keys including duplicates
+    public int size() {
+        return size;
+    }
+
+    public int count(long key) {
+        int pos = Arrays.binarySearch(keys, key);
+        return pos < 0 ? 0 : counts[pos];
+    }
+}
@@ -0,0 +1,123 @@
+package org.sotorrent.stringsimilarity;
+
+import java.util.Arrays;
+
+/*
+ * Counting hash map from primitive 64-bit keys to int counts (open addressing with linear probing).
+ *
+ * Replaces Multiset<String> and Map<T, Integer> for counting nGram, token, and shingle keys: two parallel arrays
+ * instead of one entry object, one boxed Integer, and one String per term. A count of 0 marks an empty slot, so every
+ * long value can be used as key. The table is kept at most half full and doubles when it reaches that size.
+ * freeze() turns the counts into a KeyMultiset with sorted keys for the merge-based metrics.
+ * A counter is not thread-safe.
+ */
+public final class LongIntCounter {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] counts;
+    private int mask;
+    private int distinctCount = 0;
+    private int size = 0;
+
+    public LongIntCounter() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    // counter for about expectedDistinctCount keys without resizing
+    public LongIntCounter(int expectedDistinctCount) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2L * expectedDistinctCount && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public void add(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive.");
+        }
+
+        int slot = slot(key);
+        if (counts[slot] == 0) {
+            keys[slot] = key;
+            distinctCount++;
+        }
+        counts[slot] += count;
+        size += count;
+
+        if (2 * distinctCount > keys.length) {
+            grow();
+        }
+    }
+
+    public int count(long key) {
+        return counts[slot(key)];
+    }
+
+    // number of distinct keys
+    public int distinctCount() {
+        return distinctCount;
+    }
+
+    // number of keys including duplicates
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        distinctCount = 0;
+        size = 0;
+    }
+
+    // sorted distinct keys with their counts, the counter can still be used afterwards
+    public KeyMultiset freeze() {
+        long[] sortedKeys = new long[distinctCount];
+        int pos = 0;
+        for (int slot=0; slot<keys.length; slot++) {
+            if (counts[slot] != 0) {
+                sortedKeys[pos++] = keys[slot];
+            }
+        }
+        Arrays.sort(sortedKeys);
+
+        int[] sortedCounts = new int[distinctCount];
+        for (int i=0; i<distinctCount; i++) {
+            sortedCounts[i] = count(sortedKeys[i]);
+        }
+        return new KeyMultiset(sortedKeys, sortedCounts, size);
+    }
+
+    // slot of the key, or the empty slot where it would be inserted
+    private int slot(long key) {
+        int slot = (int) Tokenization.mix64(key) & mask;
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        allocate(oldKeys.length << 1);
+        for (int i=0; i<oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.sotorrent.stringsimilarity;
+
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+/*
+ * Zero-copy view of the nGrams of a string (see Tokenization.nGramView()).
+ *
+ * An nGram is identified by its offset in the source: it covers the chars [offset, offset+nGramSize). With padding,
+ * offsets start at -(nGramSize-1) and charAt() returns the padding char outside of the source, so no padded copy and
+ * no substrings are created. The offsets are available as IntStream and as a (splittable) Spliterator, in the order
+ * of Tokenization.nGramList(); consumers such as hashing and winnowing read the chars of each window via charAt().
+ */
+public final class NGramView {
+    private static final char PADDING_CHAR = Tokenization.PADDING_CHAR.charAt(0);
+
+    private final CharSequence source;
+    private final int nGramSize;
+    private final int firstOffset; // offset of the first nGram (negative with padding)
+    private final int size; // number of nGrams
+
+    NGramView(CharSequence source, int nGramSize, boolean padding) {
+        this.source = source;
+        this.nGramSize = nGramSize;
+        this.firstOffset = padding ? -(nGramSize - 1) : 0;
+        this.size = source.length() + (padding ? 2 * (nGramSize - 1) : 0) - nGramSize + 1;
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public int getNGramSize() {
+        return nGramSize;
+    }
+
+    // number of nGrams
+    public int size() {
+        return size;
+    }
+
+    public int getFirstOffset() {
+        return firstOffset;
+    }
+
+    // char of the source at position pos, the padding char outside of the source
+    public char charAt(int pos) {
+        return pos >= 0 && pos < source.length() ? source.charAt(pos) : PADDING_CHAR;
+    }
+
+    // offsets of the nGrams in the order of Tokenization.nGramList()
+    public IntStream offsets() {
+        return IntStream.range(firstOffset, firstOffset + size);
+    }
+
+    public Spliterator.OfInt spliterator() {
+        return offsets().spliterator();
+    }
+
+    // the nGram at the given offset as string (creates a copy), equal to the corresponding element of nGramList()
+    public String toString(int offset) {
+        char[] chars = new char[nGramSize];
+        for (int i=0; i<nGramSize; i++) {
+            chars[i] = charAt(offset + i);
+        }
+        return new String(chars);
+    }
+}
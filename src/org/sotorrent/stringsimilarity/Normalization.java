@@ -1,14 +1,26 @@
 package org.sotorrent.stringsimilarity;
 
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 // TODO: add method to normalize text blocks by a stemmer, e.g. the Porter Stemmer http://snowball.tartarus.org/algorithms/english/stemmer.html
 
 public class Normalization {
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+    private static final Pattern SPECIAL_CHARS = Pattern.compile("[{},;.:]");
+    private static final Pattern NON_WORD_CHARS = Pattern.compile("\\W+");
+    /*
+     * Output buffers of the fused normalizers are reused per thread up to this length (in chars).
+     */
+    private static final int MAX_CACHED_BUFFER_LENGTH = 1 << 16;
+    private static final ThreadLocal<char[]> buffer = ThreadLocal.withInitial(() -> new char[256]);
+
     public static String removeWhitespaces(String str) {
-        return str.replaceAll("\\s+","");  // http://stackoverflow.com/questions/5455794/removing-whitespace-from-strings-in-java
+        return WHITESPACES.matcher(str).replaceAll("");  // http://stackoverflow.com/questions/5455794/removing-whitespace-from-strings-in-java
     }
 
     public static String unifyWhitespaces(String str) {
-        return str.replaceAll("\\s+"," ");  // http://stackoverflow.com/questions/5455794/removing-whitespace-from-strings-in-java
+        return WHITESPACES.matcher(str).replaceAll(" ");  // http://stackoverflow.com/questions/5455794/removing-whitespace-from-strings-in-java
     }
 
     public static String toLowerCase(String str) {
@@ -17,28 +29,153 @@ public class Normalization {
 
     public static String removeSpecialChars(String str) {
         // TODO: Other characters?
-        return str.replaceAll("[{},;.:]", "");
+        return SPECIAL_CHARS.matcher(str).replaceAll("");
     }
 
     public static String replaceNonWordChars(String str) {
-        return str.replaceAll("\\W+", " "); // replaces all non-word characters with a space
+        return NON_WORD_CHARS.matcher(str).replaceAll(" "); // replaces all non-word characters with a space
     }
 
     // ********** DEFAULT NORMALIZATION **********
 
+    /*
+     * The default normalizations are fused into a single scan over the string that writes into a reusable buffer,
+     * instead of chaining toLowerCase() and two or three replaceAll() calls with one intermediate String each.
+     * The result is identical to the chained methods above, e.g. normalizeForEdit(str) equals
+     * unifyWhitespaces(removeSpecialChars(toLowerCase(str))).
+     */
+    public enum Mode {
+        NONE, // no normalization
+        EDIT, // normalizeForEdit()
+        NGRAM, // normalizeForNGram()
+        SHINGLE // normalizeForShingle()
+    }
+
     // -> for edit metrics
     public static String normalizeForEdit(String str) {
-        return unifyWhitespaces(removeSpecialChars(toLowerCase(str)));
+        return normalize(str, Mode.EDIT);
     }
 
 
     // -> for ngrams
     public static String normalizeForNGram(String str) {
-        return removeWhitespaces(removeSpecialChars(toLowerCase(str)));
+        return normalize(str, Mode.NGRAM);
     }
 
     // -> for shingles
     public static String normalizeForShingle(String str) {
-        return unifyWhitespaces(replaceNonWordChars(toLowerCase(str)));
+        return normalize(str, Mode.SHINGLE);
+    }
+
+    public static String normalize(String str, Mode mode) {
+        if (mode == Mode.NONE) {
+            return str;
+        }
+
+        String lowerCase = isAsciiLowerCaseSafe(str, 0, str.length()) ? str : str.toLowerCase();
+        char[] chars = buffer(lowerCase.length());
+        int length = 0;
+        Normalizer normalizer = new Normalizer(mode);
+        for (int i=0; i<lowerCase.length(); i++) {
+            int c = normalizer.normalize(toLowerCaseAscii(lowerCase.charAt(i)));
+            if (c != Normalizer.NONE) {
+                chars[length++] = (char) c;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    /*
+     * Normalizes lower-cased chars one at a time. The state (inside a run of whitespace or non-word chars) is kept
+     * between calls, so that a string can also be normalized chunk by chunk (see StreamingTokenizer).
+     */
+    static final class Normalizer {
+        static final int NONE = -1; // the char is removed
+
+        private final Mode mode;
+        private boolean run = false; // inside a run of whitespace (EDIT) or non-word chars (SHINGLE)
+
+        Normalizer(Mode mode) {
+            this.mode = mode;
+        }
+
+        // the normalized char or NONE
+        int normalize(char c) {
+            switch (mode) {
+                case EDIT:
+                    if (isSpecialChar(c)) {
+                        return NONE;
+                    }
+                    if (isWhitespace(c)) {
+                        if (run) {
+                            return NONE;
+                        }
+                        run = true;
+                        return ' ';
+                    }
+                    run = false;
+                    return c;
+                case NGRAM:
+                    return isSpecialChar(c) || isWhitespace(c) ? NONE : c;
+                case SHINGLE:
+                    if (isWordChar(c)) {
+                        run = false;
+                        return c;
+                    }
+                    if (run) {
+                        return NONE;
+                    }
+                    run = true;
+                    return ' ';
+                default:
+                    return c;
+            }
+        }
+    }
+
+    /*
+     * ASCII fast path: ASCII chars can be lower-cased char by char (see toLowerCaseAscii()).
+     * Otherwise, and for Turkic default locales that lower-case 'I' to a dotless i, String.toLowerCase() has to be
+     * applied first, because it depends on the locale and may change the length of the string.
+     */
+    static boolean isAsciiLowerCaseSafe(CharSequence chars, int from, int to) {
+        for (int i=from; i<to; i++) {
+            if (chars.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        String language = Locale.getDefault().getLanguage();
+        return !language.equals("tr") && !language.equals("az");
+    }
+
+    static char toLowerCaseAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    // \s in java.util.regex
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // [{},;.:], see removeSpecialChars()
+    private static boolean isSpecialChar(char c) {
+        return c == '{' || c == '}' || c == ',' || c == ';' || c == '.' || c == ':';
+    }
+
+    // \w in java.util.regex
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // the output of a fused normalizer is never longer than its input
+    private static char[] buffer(int length) {
+        char[] chars = buffer.get();
+        if (chars.length < length) {
+            chars = new char[length];
+            if (length <= MAX_CACHED_BUFFER_LENGTH) {
+                buffer.set(chars);
+            }
+        }
+        return chars;
     }
 }
@@ -0,0 +1,96 @@
+package org.sotorrent.stringsimilarity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static org.sotorrent.stringsimilarity.Tokenization.*;
+
+/*
+ * Counts the nGram or shingle keys of very large inputs in parallel on the common fork-join pool
+ * (see Tokenization.nGramKeyMultisetParallel() and shingleKeyMultisetParallel()).
+ *
+ * The nGrams (or shingles) are split into segments of consecutive offsets. An nGram segment reads nGramSize-1 chars
+ * beyond its last offset, a shingle segment is split at the whitespace between two tokens and reads shingleSize-1
+ * tokens beyond its last shingle, so every nGram and shingle is counted in exactly one segment. The sorted multisets
+ * of the segments are merged pairwise, so the result is identical to sequential counting.
+ * Every merge step copies the distinct keys of both halves, so there are only a few segments per worker thread of
+ * the pool (SEGMENTS_PER_THREAD), but at least minSegmentSize offsets per segment.
+ */
+final class ParallelCounting {
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    private ParallelCounting() {
+    }
+
+    static KeyMultiset nGramKeyMultiset(NGramView nGrams, int minSegmentSize) {
+        int first = nGrams.getFirstOffset();
+        return count(first, first + nGrams.size(), minSegmentSize,
+                (from, to, counter) -> countNGrams(nGrams, from, to, counter));
+    }
+
+    static KeyMultiset shingleKeyMultiset(ShingleView shingles, int minSegmentSize) {
+        return count(0, shingles.size(), minSegmentSize,
+                (from, to, counter) -> countShingles(shingles, from, to, counter));
+    }
+
+    private static KeyMultiset count(int from, int to, int minSegmentSize, SegmentCounter segmentCounter) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int segments = SEGMENTS_PER_THREAD * pool.getParallelism();
+        int segmentSize = Math.max(minSegmentSize, (int) ((to - (long) from + segments - 1) / segments));
+        return pool.invoke(new CountTask(from, to, segmentSize, segmentCounter));
+    }
+
+    // nGrams at the offsets [from, to)
+    private static void countNGrams(NGramView nGrams, int from, int to, LongIntCounter counter) {
+        RollingNGramKey rollingKey = new RollingNGramKey(nGrams.getNGramSize());
+        for (int pos=from; pos<to+nGrams.getNGramSize()-1; pos++) {
+            if (rollingKey.add(nGrams.charAt(pos))) {
+                counter.add(rollingKey.key());
+            }
+        }
+    }
+
+    // shingles starting at the tokens [from, to)
+    private static void countShingles(ShingleView shingles, int from, int to, LongIntCounter counter) {
+        TokenView tokens = shingles.getTokens();
+        RollingShingleKey rollingKey = new RollingShingleKey(shingles.getShingleSize());
+        for (int i=from; i<to+shingles.getShingleSize()-1; i++) {
+            if (rollingKey.add(hashChars(tokens.getSource(), tokens.getOffset(i), tokens.getLength(i)))) {
+                counter.add(rollingKey.key());
+            }
+        }
+    }
+
+    private interface SegmentCounter {
+        void count(int from, int to, LongIntCounter counter);
+    }
+
+    private static final class CountTask extends RecursiveTask<KeyMultiset> {
+        private final int from;
+        private final int to;
+        private final int segmentSize;
+        private final SegmentCounter segmentCounter;
+
+        private CountTask(int from, int to, int segmentSize, SegmentCounter segmentCounter) {
+            this.from = from;
+            this.to = to;
+            this.segmentSize = segmentSize;
+            this.segmentCounter = segmentCounter;
+        }
+
+        @Override
+        protected KeyMultiset compute() {
+            if (to - from <= segmentSize) {
+                LongIntCounter counter = new LongIntCounter();
+                segmentCounter.count(from, to, counter);
+                return counter.freeze();
+            }
+
+            int mid = from + (to - from) / 2;
+            CountTask left = new CountTask(from, mid, segmentSize, segmentCounter);
+            left.fork();
+            KeyMultiset right = new CountTask(mid, to, segmentSize, segmentCounter).compute();
+            return KeyMultiset.sum(left.join(), right);
+        }
+    }
+}
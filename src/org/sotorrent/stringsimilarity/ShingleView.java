@@ -0,0 +1,55 @@
+package org.sotorrent.stringsimilarity;
+
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+/*
+ * Zero-copy view of the shingles of a TokenView (see Tokenization.shingleView()).
+ *
+ * A shingle is identified by the index of its first token and covers the tokens [offset, offset+shingleSize). The
+ * shingles are not joined: consumers such as hashing read the chars of the tokens via the TokenView.
+ * The offsets are available as IntStream and as a (splittable) Spliterator, in the order of Tokenization.shingleList().
+ */
+public final class ShingleView {
+    private final TokenView tokens;
+    private final int shingleSize;
+
+    ShingleView(TokenView tokens, int shingleSize) {
+        this.tokens = tokens;
+        this.shingleSize = shingleSize;
+    }
+
+    public TokenView getTokens() {
+        return tokens;
+    }
+
+    public int getShingleSize() {
+        return shingleSize;
+    }
+
+    // number of shingles
+    public int size() {
+        return tokens.size() - shingleSize + 1;
+    }
+
+    // index of the first token of each shingle
+    public IntStream offsets() {
+        return IntStream.range(0, size());
+    }
+
+    public Spliterator.OfInt spliterator() {
+        return offsets().spliterator();
+    }
+
+    // the shingle at the given offset joined with the separator (creates a copy), equal to the element of shingleList()
+    public String toString(int offset, String separator) {
+        StringBuilder shingle = new StringBuilder();
+        for (int i=offset; i<offset+shingleSize; i++) {
+            if (i > offset) {
+                shingle.append(separator);
+            }
+            shingle.append(tokens.getSource(), tokens.getOffset(i), tokens.getOffset(i) + tokens.getLength(i));
+        }
+        return shingle.toString();
+    }
+}
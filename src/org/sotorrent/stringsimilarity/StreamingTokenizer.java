@@ -0,0 +1,468 @@
+package org.sotorrent.stringsimilarity;
+
+import org.sotorrent.util.exceptions.InputTooShortException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+import static org.sotorrent.stringsimilarity.Tokenization.*;
+
+/*
+ * Streaming tokenization of large inputs (Reader, CharBuffer, or UTF-8 ByteBuffer) with bounded memory.
+ *
+ * The input is read in chunks of BUFFER_SIZE chars, normalized on the fly (see Normalization.Mode), and split into
+ * tokens, nGrams, and shingles, which are passed to a callback (forEach...()) or pulled from a Spliterator, without
+ * materializing the input as String or the terms as List. Apart from the profile itself (e.g. nGramKeyMultiset()), the
+ * extra memory is bounded by the chunk size; only forEachToken() buffers the current token.
+ * The keys are identical to those of the normalized input as String, e.g.
+ * StreamingTokenizer.of(reader, Mode.NGRAM).nGramKeyMultiset(4, false) equals
+ * Tokenization.nGramKeyMultiset(Normalization.normalizeForNGram(str), 4, false), and tokens are split at
+ * DEFAULT_SEPARATOR as in Tokenization.tokens().
+ * Chunks are cut where String.toLowerCase() gives the same result as for the whole input (see cut()). The only
+ * exception is a capital sigma in a token longer than a chunk, which may be lower-cased to a medial instead of a final
+ * sigma (or vice versa) because the final sigma rule looks at the whole word.
+ * A tokenizer consumes its input and can only be used once. IOExceptions are rethrown as UncheckedIOException.
+ */
+public final class StreamingTokenizer {
+    static final int BUFFER_SIZE = 8192;
+    private static final char SEPARATOR = DEFAULT_SEPARATOR.charAt(0);
+
+    private final Reader reader;
+    private final Normalization.Mode mode;
+    private final Normalization.Normalizer normalizer;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferLength = 0; // chars read but not yet processed
+    private boolean endOfInput = false;
+    private boolean used = false;
+
+    private StreamingTokenizer(Reader reader, Normalization.Mode mode) {
+        this.reader = reader;
+        this.mode = mode;
+        this.normalizer = new Normalization.Normalizer(mode);
+    }
+
+    public static StreamingTokenizer of(Reader reader, Normalization.Mode mode) {
+        return new StreamingTokenizer(reader, mode);
+    }
+
+    // the position of chars is not changed
+    public static StreamingTokenizer of(CharBuffer chars, Normalization.Mode mode) {
+        return new StreamingTokenizer(new CharBufferReader(chars.duplicate()), mode);
+    }
+
+    // the position of bytes is not changed, malformed input is replaced
+    public static StreamingTokenizer ofUtf8(ByteBuffer bytes, Normalization.Mode mode) {
+        return new StreamingTokenizer(new Utf8Reader(bytes.duplicate()), mode);
+    }
+
+
+    // ********** CALLBACKS **********
+
+    // the token passed to the consumer is only valid during the call
+    public void forEachToken(Consumer<? super CharSequence> consumer) {
+        run(new TokenSink(consumer));
+    }
+
+    // tokens hashed as in Tokenization.tokenKeys()
+    public void forEachTokenKey(LongConsumer consumer) {
+        run(new TokenKeySink(consumer));
+    }
+
+    // nGram keys as in Tokenization.nGramKeys()
+    public void forEachNGramKey(int nGramSize, boolean padding, LongConsumer consumer) throws InputTooShortException {
+        run(new NGramKeySink(nGramSize, padding, consumer));
+    }
+
+    // shingle keys as in Tokenization.shingleKeys()
+    public void forEachShingleKey(int shingleSize, LongConsumer consumer) throws InputTooShortException {
+        run(new ShingleKeySink(shingleSize, consumer));
+    }
+
+
+    // ********** SPLITERATORS **********
+
+    public Spliterator.OfLong tokenKeys() {
+        return new KeySpliterator(TokenKeySink::new);
+    }
+
+    public Spliterator.OfLong nGramKeys(int nGramSize, boolean padding) {
+        return new KeySpliterator(consumer -> new NGramKeySink(nGramSize, padding, consumer));
+    }
+
+    public Spliterator.OfLong shingleKeys(int shingleSize) {
+        return new KeySpliterator(consumer -> new ShingleKeySink(shingleSize, consumer));
+    }
+
+
+    // ********** PROFILES **********
+
+    public KeyMultiset tokenKeyMultiset() {
+        LongIntCounter counter = new LongIntCounter();
+        forEachTokenKey(counter::add);
+        return counter.freeze();
+    }
+
+    public KeyMultiset nGramKeyMultiset(int nGramSize, boolean padding) throws InputTooShortException {
+        LongIntCounter counter = new LongIntCounter();
+        forEachNGramKey(nGramSize, padding, counter::add);
+        return counter.freeze();
+    }
+
+    public KeyMultiset shingleKeyMultiset(int shingleSize) throws InputTooShortException {
+        LongIntCounter counter = new LongIntCounter();
+        forEachShingleKey(shingleSize, counter::add);
+        return counter.freeze();
+    }
+
+
+    // ********** CHUNKS **********
+
+    private void run(CharSink sink) {
+        start();
+        while (nextChunk(sink)) {
+            // next chunk
+        }
+        sink.end();
+    }
+
+    private void start() {
+        if (used) {
+            throw new IllegalStateException("Tokenizer has already been used.");
+        }
+        used = true;
+    }
+
+    // passes the normalized chars of the next chunk to the sink, returns false at the end of the input
+    private boolean nextChunk(CharSink sink) {
+        if (endOfInput && bufferLength == 0) {
+            return false;
+        }
+
+        try {
+            while (!endOfInput && bufferLength < buffer.length) {
+                int read = reader.read(buffer, bufferLength, buffer.length - bufferLength);
+                if (read < 0) {
+                    endOfInput = true;
+                } else if (read == 0) {
+                    break; // e.g. a surrogate pair that does not fit into the rest of the buffer
+                } else {
+                    bufferLength += read;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int cut = endOfInput ? bufferLength : cut();
+
+        if (mode == Normalization.Mode.NONE) {
+            for (int i=0; i<cut; i++) {
+                sink.accept(buffer[i]);
+            }
+        } else if (Normalization.isAsciiLowerCaseSafe(CharBuffer.wrap(buffer), 0, cut)) {
+            for (int i=0; i<cut; i++) {
+                normalize(Normalization.toLowerCaseAscii(buffer[i]), sink);
+            }
+        } else {
+            String lowerCase = new String(buffer, 0, cut).toLowerCase();
+            for (int i=0; i<lowerCase.length(); i++) {
+                normalize(Normalization.toLowerCaseAscii(lowerCase.charAt(i)), sink);
+            }
+        }
+
+        System.arraycopy(buffer, cut, buffer, 0, bufferLength - cut);
+        bufferLength -= cut;
+        return true;
+    }
+
+    /*
+     * End of the chunk: after the last whitespace or, within a token longer than the buffer, between two ASCII letters
+     * or digits, where the Turkic and Lithuanian rules of String.toLowerCase() for dotted i do not look across the cut.
+     */
+    private int cut() {
+        for (int cut=bufferLength; cut>0; cut--) {
+            if (Normalization.isWhitespace(buffer[cut - 1])) {
+                return cut;
+            }
+        }
+        for (int cut=bufferLength-1; cut>0; cut--) {
+            if (isAsciiLetterOrDigit(buffer[cut - 1]) && isAsciiLetterOrDigit(buffer[cut])) {
+                return cut;
+            }
+        }
+        // at least not within a surrogate pair
+        return bufferLength > 0 && Character.isHighSurrogate(buffer[bufferLength - 1]) ? bufferLength - 1 : bufferLength;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private void normalize(char c, CharSink sink) {
+        int normalized = normalizer.normalize(c);
+        if (normalized != Normalization.Normalizer.NONE) {
+            sink.accept((char) normalized);
+        }
+    }
+
+
+    // ********** SINKS **********
+
+    private interface CharSink {
+        void accept(char c);
+
+        void end(); // end of input
+    }
+
+    private static final class TokenSink implements CharSink {
+        private final Consumer<? super CharSequence> consumer;
+        private final StringBuilder token = new StringBuilder();
+
+        private TokenSink(Consumer<? super CharSequence> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(char c) {
+            if (c == SEPARATOR) {
+                end();
+            } else {
+                token.append(c);
+            }
+        }
+
+        @Override
+        public void end() {
+            if (token.length() > 0) {
+                consumer.accept(token);
+                token.setLength(0);
+            }
+        }
+    }
+
+    // hashes the chars of each token as they arrive (see Tokenization.hashChars())
+    private static final class TokenKeySink implements CharSink {
+        private final LongConsumer consumer;
+        private long hash = HASH_SEED;
+        private int length = 0;
+
+        private TokenKeySink(LongConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(char c) {
+            if (c == SEPARATOR) {
+                endToken();
+            } else {
+                hash = hashStep(hash, c);
+                length++;
+            }
+        }
+
+        private void endToken() {
+            if (length > 0) {
+                consumer.accept(hashFinish(hash, length));
+                hash = HASH_SEED;
+                length = 0;
+            }
+        }
+
+        @Override
+        public void end() {
+            endToken();
+        }
+    }
+
+    private static final class ShingleKeySink implements CharSink {
+        private final int shingleSize;
+        private final LongConsumer consumer;
+        private final RollingShingleKey rollingKey;
+        private final TokenKeySink tokens = new TokenKeySink(this::addToken);
+        private int tokenCount = 0;
+
+        private ShingleKeySink(int shingleSize, LongConsumer consumer) {
+            this.shingleSize = shingleSize;
+            this.consumer = consumer;
+            this.rollingKey = new RollingShingleKey(shingleSize);
+        }
+
+        @Override
+        public void accept(char c) {
+            tokens.accept(c);
+        }
+
+        private void addToken(long tokenHash) {
+            tokenCount++;
+            if (rollingKey.add(tokenHash)) {
+                consumer.accept(rollingKey.key());
+            }
+        }
+
+        @Override
+        public void end() {
+            tokens.end();
+            if (tokenCount < shingleSize) {
+                throw new InputTooShortException("Number of tokens is smaller than shingle size.");
+            }
+        }
+    }
+
+    /*
+     * The first nGramSize chars are held back, so that no key is passed on (with padding) before it is known that the
+     * input is long enough, as in Tokenization.nGramKeys().
+     */
+    private static final class NGramKeySink implements CharSink {
+        private static final char PADDING = PADDING_CHAR.charAt(0);
+
+        private final int nGramSize;
+        private final boolean padding;
+        private final LongConsumer consumer;
+        private final RollingNGramKey rollingKey;
+        private final char[] head; // first nGramSize chars
+        private int count = 0;
+
+        private NGramKeySink(int nGramSize, boolean padding, LongConsumer consumer) {
+            this.nGramSize = nGramSize;
+            this.padding = padding;
+            this.consumer = consumer;
+            this.rollingKey = new RollingNGramKey(nGramSize);
+            this.head = new char[nGramSize];
+        }
+
+        @Override
+        public void accept(char c) {
+            if (count < nGramSize) {
+                head[count++] = c;
+                if (count == nGramSize) {
+                    for (int i=0; padding && i<nGramSize-1; i++) {
+                        add(PADDING);
+                    }
+                    for (char headChar : head) {
+                        add(headChar);
+                    }
+                }
+            } else {
+                add(c);
+            }
+        }
+
+        private void add(char c) {
+            if (rollingKey.add(c)) {
+                consumer.accept(rollingKey.key());
+            }
+        }
+
+        @Override
+        public void end() {
+            if (count < nGramSize) {
+                throw new InputTooShortException("String length is smaller than nGram size.");
+            }
+            for (int i=0; padding && i<nGramSize-1; i++) {
+                add(PADDING);
+            }
+        }
+    }
+
+
+    // ********** SPLITERATOR **********
+
+    // pulls one chunk at a time, so at most the keys of one chunk are buffered
+    private final class KeySpliterator extends Spliterators.AbstractLongSpliterator {
+        private final CharSink sink;
+        private long[] keys = new long[64];
+        private int head = 0;
+        private int tail = 0;
+        private boolean ended = false;
+
+        private KeySpliterator(Function<LongConsumer, CharSink> sinkFactory) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.sink = sinkFactory.apply(key -> {
+                if (tail == keys.length) {
+                    keys = Arrays.copyOf(keys, 2 * keys.length);
+                }
+                keys[tail++] = key;
+            });
+            start();
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            while (head == tail) {
+                if (ended) {
+                    return false;
+                }
+                head = 0;
+                tail = 0;
+                if (!nextChunk(sink)) {
+                    sink.end();
+                    ended = true;
+                }
+            }
+            action.accept(keys[head++]);
+            return true;
+        }
+    }
+
+
+    // ********** READERS **********
+
+    private static final class CharBufferReader extends Reader {
+        private final CharBuffer chars;
+
+        private CharBufferReader(CharBuffer chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (!chars.hasRemaining()) {
+                return -1;
+            }
+            int length = Math.min(len, chars.remaining());
+            chars.get(cbuf, off, length);
+            return length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class Utf8Reader extends Reader {
+        private final ByteBuffer bytes;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private Utf8Reader(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (!bytes.hasRemaining()) {
+                return -1;
+            }
+            CharBuffer chars = CharBuffer.wrap(cbuf, off, len);
+            decoder.decode(bytes, chars, true);
+            return chars.position() - off;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
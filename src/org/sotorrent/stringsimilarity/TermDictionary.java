@@ -0,0 +1,144 @@
+package org.sotorrent.stringsimilarity;
+
+import java.util.Arrays;
+
+/*
+ * Thread-safe dictionary that interns terms across a corpus and maps them to dense int IDs 0..size()-1.
+ *
+ * Terms are identified by their 64-bit keys (see Tokenization.nGramKeys(), tokenKeys(), shingleKeys()), so each
+ * distinct nGram, token, or shingle is stored once as a long instead of once per String. The ID sequences produced
+ * by Tokenization.nGramIds(), tokenIds(), and shingleIds() can be compared with the int[] variants of the edit
+ * metrics (see edit.Base).
+ * IDs are assigned in the order in which terms are first interned. sortedByFrequency() reassigns them by descending
+ * frequency, so that the most frequent terms get the smallest IDs (which edit.Alphabet looks up in a plain array).
+ * All methods synchronize on the dictionary; the batch methods acquire the lock once per array.
+ */
+public final class TermDictionary {
+    public static final int UNKNOWN = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] tableKeys;
+    private int[] tableIds; // ID+1, 0 marks an empty slot
+    private int mask;
+    private long[] keys = new long[MIN_CAPACITY]; // keys[id]
+    private int[] frequencies = new int[MIN_CAPACITY]; // frequencies[id]
+    private int size = 0;
+
+    public TermDictionary() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        tableKeys = new long[capacity];
+        tableIds = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // ID of the term, a new ID if the term is unknown; counts one occurrence
+    public synchronized int intern(long key) {
+        return internUnsynchronized(key);
+    }
+
+    public synchronized int[] intern(long[] keys) {
+        int[] ids = new int[keys.length];
+        for (int i=0; i<keys.length; i++) {
+            ids[i] = internUnsynchronized(keys[i]);
+        }
+        return ids;
+    }
+
+    // ID of the term or UNKNOWN, does not intern the term
+    public synchronized int lookup(long key) {
+        return tableIds[slot(key)] - 1;
+    }
+
+    public synchronized int[] lookup(long[] keys) {
+        int[] ids = new int[keys.length];
+        for (int i=0; i<keys.length; i++) {
+            ids[i] = tableIds[slot(keys[i])] - 1;
+        }
+        return ids;
+    }
+
+    // number of distinct terms
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getKey(int id) {
+        checkId(id);
+        return keys[id];
+    }
+
+    // number of times the term was interned
+    public synchronized int getFrequency(int id) {
+        checkId(id);
+        return frequencies[id];
+    }
+
+    // copy of the dictionary with IDs assigned by descending frequency (ties keep the order of the current IDs)
+    public synchronized TermDictionary sortedByFrequency() {
+        Integer[] order = new Integer[size];
+        for (int id=0; id<size; id++) {
+            order[id] = id;
+        }
+        Arrays.sort(order, (id1, id2) -> frequencies[id1] != frequencies[id2]
+                ? Integer.compare(frequencies[id2], frequencies[id1])
+                : Integer.compare(id1, id2));
+
+        TermDictionary sorted = new TermDictionary();
+        for (int id : order) {
+            int newId = sorted.internUnsynchronized(keys[id]);
+            sorted.frequencies[newId] = frequencies[id];
+        }
+        return sorted;
+    }
+
+    private int internUnsynchronized(long key) {
+        int slot = slot(key);
+        if (tableIds[slot] != 0) {
+            int id = tableIds[slot] - 1;
+            frequencies[id]++;
+            return id;
+        }
+
+        int id = size++;
+        if (id == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * id);
+            frequencies = Arrays.copyOf(frequencies, 2 * id);
+        }
+        keys[id] = key;
+        frequencies[id] = 1;
+        tableKeys[slot] = key;
+        tableIds[slot] = id + 1;
+
+        if (2 * size > tableKeys.length) {
+            grow();
+        }
+        return id;
+    }
+
+    // slot of the key, or the empty slot where it would be inserted (see LongIntCounter)
+    private int slot(long key) {
+        int slot = (int) Tokenization.mix64(key) & mask;
+        while (tableIds[slot] != 0 && tableKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        allocate(tableKeys.length << 1);
+        for (int id=0; id<size; id++) {
+            int slot = slot(keys[id]);
+            tableKeys[slot] = keys[id];
+            tableIds[slot] = id + 1;
+        }
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown term ID: " + id);
+        }
+    }
+}
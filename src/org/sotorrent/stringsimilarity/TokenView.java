@@ -0,0 +1,72 @@
+package org.sotorrent.stringsimilarity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+/*
+ * Zero-copy view of the tokens of a string as (offset, length) spans (see Tokenization.tokenView()).
+ *
+ * The spans are found in one scan for the separator, without a regex split and without substrings. Empty tokens
+ * (consecutive separators) are skipped, as in Tokenization.tokens().
+ */
+public final class TokenView {
+    private final String source;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int size;
+
+    TokenView(String source, int[] offsets, int[] lengths, int size) {
+        this.source = source;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.size = size;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    // number of tokens
+    public int size() {
+        return size;
+    }
+
+    // offset of token i in the source
+    public int getOffset(int i) {
+        return offsets[i];
+    }
+
+    public int getLength(int i) {
+        return lengths[i];
+    }
+
+    // char pos of token i
+    public char charAt(int i, int pos) {
+        return source.charAt(offsets[i] + pos);
+    }
+
+    // indices of the tokens
+    public IntStream indices() {
+        return IntStream.range(0, size);
+    }
+
+    public Spliterator.OfInt spliterator() {
+        return indices().spliterator();
+    }
+
+    // token i as string (creates a copy)
+    public String toString(int i) {
+        return source.substring(offsets[i], offsets[i] + lengths[i]);
+    }
+
+    // the tokens as strings, equal to Tokenization.tokens()
+    public List<String> toList() {
+        List<String> tokens = new ArrayList<>(size);
+        for (int i=0; i<size; i++) {
+            tokens.add(toString(i));
+        }
+        return tokens;
+    }
+}
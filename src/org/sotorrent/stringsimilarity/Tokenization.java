@@ -4,11 +4,12 @@ import com.google.common.collect.Multiset;
 import org.sotorrent.util.collections.MultisetCollector;
 import org.sotorrent.util.exceptions.InputTooShortException;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.function.LongConsumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class Tokenization {
@@ -23,51 +24,122 @@ public class Tokenization {
      * "Shingles are effectively word-nGrams." (https://www.elastic.co/blog/searching-with-shingles)
      */
     public static final int SHINGLE_SIZE = 2;
+    /*
+     * nGrams up to this size fit into one long key (4 UTF-16 chars with 16 bits each), see nGramKeys().
+     */
+    static final int PACKED_NGRAM_SIZE = 4;
+    /*
+     * Profiles with at least this many nGrams (or shingles) are counted in parallel in segments of at least the given
+     * size (see ParallelCounting). Counting a shingle costs more than counting an nGram, hence the smaller sizes.
+     */
+    static final int NGRAM_PARALLEL_THRESHOLD = 1 << 16;
+    static final int NGRAM_SEGMENT_SIZE = 1 << 14;
+    static final int SHINGLE_PARALLEL_THRESHOLD = 1 << 14;
+    static final int SHINGLE_SEGMENT_SIZE = 1 << 12;
+    static final long HASH_SEED = 0x9e3779b97f4a7c15L;
+    private static final long HASH_MULTIPLIER = 0xbf58476d1ce4e5b9L;
+    private static final long SHINGLE_HASH_BASE = 0xc2b2ae3d27d4eb4fL; // odd, see RollingShingleKey
 
 
     // ********** TOKENS **********
 
     public static List<String> tokens(String str, String separator) {
-        return Stream.of(str.split(Pattern.quote(separator)))
-                .filter(s -> s.length()>0)
-                .collect(Collectors.toList());
+        if (separator.isEmpty()) {
+            return Stream.of(str.split(Pattern.quote(separator)))
+                    .filter(s -> s.length()>0)
+                    .collect(Collectors.toList());
+        }
+        return tokenView(str, separator).toList();
     }
 
     public static List<String> tokens(String str) {
         return tokens(str, DEFAULT_SEPARATOR);
     }
 
+    // tokens as (offset, length) spans in str, found without a regex split (see TokenView)
+    public static TokenView tokenView(String str, String separator) {
+        if (separator.isEmpty()) {
+            throw new IllegalArgumentException("Separator must not be empty.");
+        }
 
-    // ********** NGRAMS **********
-
-    public static List<String> nGramList(String str, int nGramSize, boolean padding) throws InputTooShortException {
-        if (str.length() >= nGramSize) {
-            final String finalStr; // for lambda expression
-            final int length;
-
-            if (padding) {
-                length = str.length() + 2 * (nGramSize - 1);
-                StringBuilder strPadding = new StringBuilder(length);
-                for (int i = 0; i < nGramSize - 1; i++) {
-                    strPadding.append(PADDING_CHAR);
-                }
-                strPadding.append(str);
-                for (int i = 0; i < nGramSize - 1; i++) {
-                    strPadding.append(PADDING_CHAR);
+        int[] offsets = new int[16];
+        int[] lengths = new int[16];
+        int size = 0;
+        int start = 0;
+        while (start <= str.length()) {
+            int end = str.indexOf(separator, start);
+            if (end < 0) {
+                end = str.length();
+            }
+            if (end > start) {
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, 2 * size);
+                    lengths = Arrays.copyOf(lengths, 2 * size);
                 }
-                finalStr = strPadding.toString();
-            } else {
-                finalStr = str;
-                length = str.length();
+                offsets[size] = start;
+                lengths[size++] = end - start;
             }
+            start = end + separator.length();
+        }
+        return new TokenView(str, offsets, lengths, size);
+    }
 
-            return IntStream
-                    .range(0, length - nGramSize + 1)
-                    .mapToObj(currentStartPos -> finalStr.substring(currentStartPos, currentStartPos + nGramSize))
-                    .collect(Collectors.toList());
-        } else {
-            throw new InputTooShortException("String length is smaller than nGram size.");
+    public static TokenView tokenView(String str) {
+        return tokenView(str, DEFAULT_SEPARATOR);
+    }
+
+    // view of a token list, the tokens are copied once into a shared buffer instead of once per shingle
+    public static TokenView tokenView(List<String> tokens) {
+        int[] offsets = new int[tokens.size()];
+        int[] lengths = new int[tokens.size()];
+        StringBuilder source = new StringBuilder();
+        for (int i=0; i<tokens.size(); i++) {
+            offsets[i] = source.length();
+            lengths[i] = tokens.get(i).length();
+            source.append(tokens.get(i));
         }
+        return new TokenView(source.toString(), offsets, lengths, tokens.size());
+    }
+
+    // tokens hashed to 64-bit keys (see hashToken()) with their counts
+    public static KeyMultiset tokenKeyMultiset(List<String> tokens) {
+        LongIntCounter counter = new LongIntCounter(tokens.size());
+        for (String token : tokens) {
+            counter.add(hashToken(token));
+        }
+        return counter.freeze();
+    }
+
+    // tokens hashed to 64-bit keys (see hashToken()), in order
+    public static long[] tokenKeys(TokenView tokens) {
+        long[] keys = new long[tokens.size()];
+        for (int i=0; i<tokens.size(); i++) {
+            keys[i] = hashChars(tokens.getSource(), tokens.getOffset(i), tokens.getLength(i));
+        }
+        return keys;
+    }
+
+    public static KeyMultiset tokenKeyMultiset(TokenView tokens) {
+        LongIntCounter counter = new LongIntCounter(tokens.size());
+        for (int i=0; i<tokens.size(); i++) {
+            counter.add(hashChars(tokens.getSource(), tokens.getOffset(i), tokens.getLength(i)));
+        }
+        return counter.freeze();
+    }
+
+    // sorted distinct token keys (primitive counterpart of a token set)
+    public static long[] tokenKeySet(TokenView tokens) {
+        return tokenKeyMultiset(tokens).keys();
+    }
+
+
+    // ********** NGRAMS **********
+
+    public static List<String> nGramList(String str, int nGramSize, boolean padding) throws InputTooShortException {
+        NGramView nGrams = nGramView(str, nGramSize, padding);
+        return nGrams.offsets()
+                .mapToObj(nGrams::toString)
+                .collect(Collectors.toList());
     }
 
     public static List<String> nGramList(String str, int nGramSize) {
@@ -117,21 +189,176 @@ public class Tokenization {
         return nGramSet(str, NGRAM_SIZE);
     }
 
+    // nGrams as offsets into str instead of substrings (see NGramView)
+    public static NGramView nGramView(CharSequence str, int nGramSize, boolean padding) throws InputTooShortException {
+        if (str.length() < nGramSize) {
+            throw new InputTooShortException("String length is smaller than nGram size.");
+        }
+        return new NGramView(str, nGramSize, padding);
+    }
+
+    public static NGramView nGramView(CharSequence str, int nGramSize) {
+        return nGramView(str, nGramSize, false);
+    }
+
+    public static NGramView nGramView(CharSequence str) {
+        return nGramView(str, NGRAM_SIZE);
+    }
+
+
+    // ********** NGRAM KEYS **********
+
+    /*
+     * nGrams as primitive 64-bit keys instead of substrings, in the same order as nGramList().
+     * nGrams with at most 4 chars are packed exactly (16 bits per UTF-16 char), so equal keys mean equal nGrams.
+     * Longer nGrams are hashed to 64 bits (see hashChars()), collisions are possible but negligible for the set and
+     * profile sizes of a post.
+     */
+    public static long[] nGramKeys(String str, int nGramSize, boolean padding) throws InputTooShortException {
+        NGramView nGrams = nGramView(str, nGramSize, padding);
+        long[] keys = new long[nGrams.size()];
+        forEachNGramKey(nGrams, new LongConsumer() {
+            private int pos = 0;
+
+            @Override
+            public void accept(long key) {
+                keys[pos++] = key;
+            }
+        });
+        return keys;
+    }
+
+    // pass the nGram keys to the consumer (in the order of nGramList()) without materializing them
+    static void forEachNGramKey(NGramView nGrams, LongConsumer consumer) {
+        RollingNGramKey rollingKey = new RollingNGramKey(nGrams.getNGramSize());
+        int end = nGrams.getFirstOffset() + nGrams.size() + nGrams.getNGramSize() - 1; // end of the last nGram
+        for (int pos=nGrams.getFirstOffset(); pos<end; pos++) {
+            if (rollingKey.add(nGrams.charAt(pos))) {
+                consumer.accept(rollingKey.key());
+            }
+        }
+    }
+
+    /*
+     * Keys of the nGrams of a char sequence that is added one char at a time (see forEachNGramKey() and
+     * StreamingTokenizer).
+     */
+    static final class RollingNGramKey {
+        private final int nGramSize;
+        private final char[] window; // last nGramSize chars (ring buffer), only for hashed keys
+        private long packedKey = 0; // chars of previous nGrams are shifted out (nGramSize 4)
+        private long count = 0; // number of chars added
+
+        RollingNGramKey(int nGramSize) {
+            this.nGramSize = nGramSize;
+            this.window = nGramSize > PACKED_NGRAM_SIZE ? new char[nGramSize] : null;
+        }
+
+        // true if c completes an nGram, see key()
+        boolean add(char c) {
+            if (window == null) {
+                packedKey = (packedKey << Character.SIZE) | c;
+            } else {
+                window[(int) (count % nGramSize)] = c;
+            }
+            count++;
+            return count >= nGramSize;
+        }
+
+        // key of the nGram that ends with the last char
+        long key() {
+            if (window == null) {
+                return nGramSize == PACKED_NGRAM_SIZE
+                        ? packedKey
+                        : packedKey & ((1L << (Character.SIZE * nGramSize)) - 1);
+            }
+            long hash = HASH_SEED;
+            int first = (int) (count % nGramSize); // oldest char in the window
+            for (int i=0; i<nGramSize; i++) {
+                hash = hashStep(hash, window[(first + i) % nGramSize]);
+            }
+            return hashFinish(hash, nGramSize);
+        }
+    }
+
+    public static long[] nGramKeys(String str, int nGramSize) {
+        return nGramKeys(str, nGramSize, false);
+    }
+
+    public static long[] nGramKeys(String str) {
+        return nGramKeys(str, NGRAM_SIZE);
+    }
+
+    // sorted nGram keys with their counts (primitive counterpart of nGramMultiset), counted without a key array
+    public static KeyMultiset nGramKeyMultiset(String str, int nGramSize, boolean padding) {
+        NGramView nGrams = nGramView(str, nGramSize, padding);
+        if (nGrams.size() >= NGRAM_PARALLEL_THRESHOLD) {
+            return ParallelCounting.nGramKeyMultiset(nGrams, NGRAM_SEGMENT_SIZE);
+        }
+        LongIntCounter counter = new LongIntCounter();
+        forEachNGramKey(nGrams, counter::add);
+        return counter.freeze();
+    }
+
+    // counted in parallel on the common fork-join pool, identical to nGramKeyMultiset()
+    public static KeyMultiset nGramKeyMultisetParallel(String str, int nGramSize, boolean padding) {
+        return ParallelCounting.nGramKeyMultiset(nGramView(str, nGramSize, padding), NGRAM_SEGMENT_SIZE);
+    }
+
+    public static KeyMultiset nGramKeyMultiset(String str, int nGramSize) {
+        return nGramKeyMultiset(str, nGramSize, false);
+    }
+
+    // sorted distinct nGram keys (primitive counterpart of nGramSet)
+    public static long[] nGramKeySet(String str, int nGramSize, boolean padding) {
+        return nGramKeyMultiset(str, nGramSize, padding).keys();
+    }
+
+    public static long[] nGramKeySet(String str, int nGramSize) {
+        return nGramKeySet(str, nGramSize, false);
+    }
+
+    // key of a token in tokenKeyMultiset(), same hash as for nGrams longer than PACKED_NGRAM_SIZE
+    public static long hashToken(CharSequence token) {
+        return hashChars(token, 0, token.length());
+    }
+
+    // 64-bit hash of chars[offset, offset+length): multiply-xorshift step per char, finalizer of MurmurHash3
+    static long hashChars(CharSequence chars, int offset, int length) {
+        long hash = HASH_SEED;
+        for (int pos=offset; pos<offset+length; pos++) {
+            hash = hashStep(hash, chars.charAt(pos));
+        }
+        return hashFinish(hash, length);
+    }
+
+    static long hashStep(long hash, char c) {
+        hash = (hash ^ c) * HASH_MULTIPLIER;
+        return hash ^ (hash >>> 29);
+    }
+
+    // the length is added last, so that chars can be hashed before their number is known (see StreamingTokenizer)
+    static long hashFinish(long hash, int length) {
+        return mix64(hash ^ length);
+    }
+
+    static long mix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
 
     // ********** SHINGLES **********
 
     public static List<String> shingleList(List<String> tokens, String separator, int shingleSize) throws InputTooShortException {
-        if (tokens.size() >= shingleSize) {
-            return IntStream
-                    .range(0, tokens.size()-shingleSize+1)
-                    .mapToObj(currentStartPos -> tokens.subList(currentStartPos, currentStartPos+shingleSize))
-                    .map(shingleList -> shingleList
-                            .stream()
-                            .collect(Collectors.joining(separator)))
-                    .collect(Collectors.toList());
-        } else {
-            throw new InputTooShortException("Number of tokens is smaller than shingle size.");
-        }
+        ShingleView shingles = shingleView(tokenView(tokens), shingleSize);
+        return shingles.offsets()
+                .mapToObj(currentStartPos -> shingles.toString(currentStartPos, separator))
+                .collect(Collectors.toList());
     }
 
     public static List<String> shingleList(List<String> tokens, String separator) {
@@ -165,6 +392,18 @@ public class Tokenization {
         return shingleMultiset(tokens, DEFAULT_SEPARATOR, SHINGLE_SIZE);
     }
 
+    // shingles as windows over the tokens instead of joined strings (see ShingleView)
+    public static ShingleView shingleView(TokenView tokens, int shingleSize) throws InputTooShortException {
+        if (tokens.size() < shingleSize) {
+            throw new InputTooShortException("Number of tokens is smaller than shingle size.");
+        }
+        return new ShingleView(tokens, shingleSize);
+    }
+
+    public static ShingleView shingleView(TokenView tokens) {
+        return shingleView(tokens, SHINGLE_SIZE);
+    }
+
     public static Set<String> shingleSet(List<String> tokens, String separator, int shingleSize) {
         return shingleMultiset(tokens, separator, shingleSize).elementSet();
     }
@@ -180,4 +419,150 @@ public class Tokenization {
     public static Set<String> shingleSet(List<String> tokens) {
         return shingleSet(tokens, DEFAULT_SEPARATOR, SHINGLE_SIZE);
     }
+
+
+    // ********** SHINGLE KEYS **********
+
+    /*
+     * Shingles as primitive 64-bit keys instead of joined strings, in the same order as shingleList().
+     * The key of a shingle identifies its token sequence, which is what the joined shingle identifies as long as the
+     * tokens do not contain the separator (as for tokens()). Collisions are possible but negligible for the set and
+     * profile sizes of a post.
+     */
+    public static long[] shingleKeys(ShingleView shingles) {
+        long[] keys = new long[shingles.size()];
+        forEachShingleKey(shingles, new LongConsumer() {
+            private int pos = 0;
+
+            @Override
+            public void accept(long key) {
+                keys[pos++] = key;
+            }
+        });
+        return keys;
+    }
+
+    static void forEachShingleKey(ShingleView shingles, LongConsumer consumer) {
+        RollingShingleKey rollingKey = new RollingShingleKey(shingles.getShingleSize());
+        for (long tokenHash : tokenKeys(shingles.getTokens())) {
+            if (rollingKey.add(tokenHash)) {
+                consumer.accept(rollingKey.key());
+            }
+        }
+    }
+
+    /*
+     * Keys of the shingles of a token sequence that is added one token hash (see hashToken()) at a time.
+     * Each token is hashed once and the token hashes of a window are combined with a rolling polynomial hash
+     * (arithmetic mod 2^64), so a key costs O(1) regardless of the shingle size.
+     */
+    static final class RollingShingleKey {
+        private final int shingleSize;
+        private final long[] window; // last shingleSize token hashes (ring buffer)
+        private final long highestPower; // SHINGLE_HASH_BASE^(shingleSize-1), weight of the first token in the window
+        private long hash = 0;
+        private long count = 0; // number of tokens added
+
+        RollingShingleKey(int shingleSize) {
+            this.shingleSize = shingleSize;
+            this.window = new long[shingleSize];
+            long power = 1;
+            for (int i=1; i<shingleSize; i++) {
+                power *= SHINGLE_HASH_BASE;
+            }
+            this.highestPower = power;
+        }
+
+        // true if the token completes a shingle, see key()
+        boolean add(long tokenHash) {
+            int pos = (int) (count % shingleSize);
+            if (count >= shingleSize) {
+                hash -= window[pos] * highestPower; // token that left the window
+            }
+            window[pos] = tokenHash;
+            hash = hash * SHINGLE_HASH_BASE + tokenHash;
+            count++;
+            return count >= shingleSize;
+        }
+
+        // key of the shingle that ends with the last token
+        long key() {
+            return mix64(hash);
+        }
+    }
+
+    public static long[] shingleKeys(List<String> tokens, int shingleSize) throws InputTooShortException {
+        return shingleKeys(shingleView(tokenView(tokens), shingleSize));
+    }
+
+    // sorted shingle keys with their counts (primitive counterpart of shingleMultiset)
+    public static KeyMultiset shingleKeyMultiset(ShingleView shingles) {
+        if (shingles.size() >= SHINGLE_PARALLEL_THRESHOLD) {
+            return ParallelCounting.shingleKeyMultiset(shingles, SHINGLE_SEGMENT_SIZE);
+        }
+        LongIntCounter counter = new LongIntCounter(shingles.size());
+        forEachShingleKey(shingles, counter::add);
+        return counter.freeze();
+    }
+
+    // counted in parallel on the common fork-join pool, identical to shingleKeyMultiset()
+    public static KeyMultiset shingleKeyMultisetParallel(ShingleView shingles) {
+        return ParallelCounting.shingleKeyMultiset(shingles, SHINGLE_SEGMENT_SIZE);
+    }
+
+    public static KeyMultiset shingleKeyMultiset(List<String> tokens, int shingleSize) throws InputTooShortException {
+        return shingleKeyMultiset(shingleView(tokenView(tokens), shingleSize));
+    }
+
+    // sorted distinct shingle keys (primitive counterpart of shingleSet)
+    public static long[] shingleKeySet(ShingleView shingles) {
+        return shingleKeyMultiset(shingles).keys();
+    }
+
+    public static long[] shingleKeySet(List<String> tokens, int shingleSize) throws InputTooShortException {
+        return shingleKeySet(shingleView(tokenView(tokens), shingleSize));
+    }
+
+
+    // ********** TERM IDS **********
+
+    /*
+     * Sequences of dense int IDs (see TermDictionary) instead of strings, for the int[] variants of the edit metrics.
+     * Each term is interned, i.e., unknown terms get a new ID and the frequencies in the dictionary are updated.
+     */
+    public static int[] nGramIds(String str, int nGramSize, TermDictionary dictionary) throws InputTooShortException {
+        return dictionary.intern(nGramKeys(str, nGramSize));
+    }
+
+    public static int[] nGramIds(String str, TermDictionary dictionary) {
+        return nGramIds(str, NGRAM_SIZE, dictionary);
+    }
+
+    public static int[] tokenIds(TokenView tokens, TermDictionary dictionary) {
+        return dictionary.intern(tokenKeys(tokens));
+    }
+
+    public static int[] tokenIds(String str, TermDictionary dictionary) {
+        return tokenIds(tokenView(str), dictionary);
+    }
+
+    public static int[] shingleIds(ShingleView shingles, TermDictionary dictionary) {
+        return dictionary.intern(shingleKeys(shingles));
+    }
+
+    // sorted distinct IDs, for the int[] variants of the set-based metrics
+    public static int[] idSet(int[] ids) {
+        if (ids.length == 0) {
+            return ids;
+        }
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int length = 1;
+        for (int i=1; i<sorted.length; i++) {
+            if (sorted[i] != sorted[length-1]) {
+                sorted[length++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, length);
+    }
 }
@@ -0,0 +1,50 @@
+package org.sotorrent.stringsimilarity.edit;
+
+/*
+ * Common prefix and suffix of two sequences.
+ *
+ * Consecutive versions of a post usually differ only in a few characters in the middle. A common prefix or suffix
+ * does not change the edit distance (and adds its length to the LCS), so the metrics strip it before running the DP.
+ */
+final class Affix {
+    private Affix() {}
+
+    static int prefixLength(CharSequence str1, CharSequence str2) {
+        int maxLength = Math.min(str1.length(), str2.length());
+        int length = 0;
+        while (length < maxLength && str1.charAt(length) == str2.charAt(length)) {
+            length++;
+        }
+        return length;
+    }
+
+    // the suffix must not overlap with the prefix
+    static int suffixLength(CharSequence str1, CharSequence str2, int prefixLength) {
+        int maxLength = Math.min(str1.length(), str2.length()) - prefixLength;
+        int length = 0;
+        while (length < maxLength
+                && str1.charAt(str1.length() - length - 1) == str2.charAt(str2.length() - length - 1)) {
+            length++;
+        }
+        return length;
+    }
+
+    static int prefixLength(int[] tokens1, int[] tokens2) {
+        int maxLength = Math.min(tokens1.length, tokens2.length);
+        int length = 0;
+        while (length < maxLength && tokens1[length] == tokens2[length]) {
+            length++;
+        }
+        return length;
+    }
+
+    // the suffix must not overlap with the prefix
+    static int suffixLength(int[] tokens1, int[] tokens2, int prefixLength) {
+        int maxLength = Math.min(tokens1.length, tokens2.length) - prefixLength;
+        int length = 0;
+        while (length < maxLength && tokens1[tokens1.length - length - 1] == tokens2[tokens2.length - length - 1]) {
+            length++;
+        }
+        return length;
+    }
+}
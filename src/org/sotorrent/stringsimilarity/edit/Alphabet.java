@@ -0,0 +1,94 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.Arrays;
+
+/*
+ * Maps the symbols of an input sequence (chars or token IDs) to dense slots 1..size().
+ * Slot 0 is reserved for symbols that were never added.
+ *
+ * Symbols in [0, DENSE_LIMIT) are looked up in a plain array, all other symbols in an open-addressing hash table.
+ * This avoids boxing chars into a HashMap<Character, Integer> in the inner loop of the edit metrics.
+ */
+final class Alphabet {
+    static final int NONE = 0;
+    private static final int DENSE_LIMIT = 256;
+    private static final int MIN_CAPACITY = 16;
+
+    private final int[] dense = new int[DENSE_LIMIT];
+    private int[] hashedKeys = new int[MIN_CAPACITY];
+    private int[] hashedSlots = new int[MIN_CAPACITY]; // NONE marks an empty bucket
+    private int hashedCount = 0;
+    private int size = 0;
+
+    int size() {
+        return size;
+    }
+
+    int slotOf(int symbol) {
+        if (symbol >= 0 && symbol < DENSE_LIMIT) {
+            return dense[symbol];
+        }
+        int mask = hashedKeys.length - 1;
+        for (int pos = hash(symbol) & mask; ; pos = (pos + 1) & mask) {
+            int slot = hashedSlots[pos];
+            if (slot == NONE || hashedKeys[pos] == symbol) {
+                return slot;
+            }
+        }
+    }
+
+    int add(int symbol) {
+        if (symbol >= 0 && symbol < DENSE_LIMIT) {
+            if (dense[symbol] == NONE) {
+                dense[symbol] = ++size;
+            }
+            return dense[symbol];
+        }
+        if (2 * (hashedCount + 1) > hashedKeys.length) {
+            rehash(2 * hashedKeys.length);
+        }
+        int mask = hashedKeys.length - 1;
+        int pos = hash(symbol) & mask;
+        while (hashedSlots[pos] != NONE) {
+            if (hashedKeys[pos] == symbol) {
+                return hashedSlots[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+        hashedKeys[pos] = symbol;
+        hashedSlots[pos] = ++size;
+        hashedCount++;
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(dense, NONE);
+        Arrays.fill(hashedSlots, NONE);
+        hashedCount = 0;
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = hashedKeys;
+        int[] oldSlots = hashedSlots;
+        hashedKeys = new int[capacity];
+        hashedSlots = new int[capacity];
+        int mask = capacity - 1;
+        for (int i=0; i<oldKeys.length; i++) {
+            if (oldSlots[i] != NONE) {
+                int pos = hash(oldKeys[i]) & mask;
+                while (hashedSlots[pos] != NONE) {
+                    pos = (pos + 1) & mask;
+                }
+                hashedKeys[pos] = oldKeys[i];
+                hashedSlots[pos] = oldSlots[i];
+            }
+        }
+    }
+
+    private static int hash(int symbol) {
+        // Fibonacci hashing, see: https://probablydance.com/2018/06/16/fibonacci-hashing-the-optimization-that-the-world-forgot-or-a-better-alternative-to-integer-modulo/
+        int h = symbol * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,290 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.Arrays;
+
+/*
+ * Threshold-bounded edit distances.
+ *
+ * Only the diagonal band |i-j| <= maxDist of the DP matrix is computed, because every cell outside the band has a
+ * value greater than maxDist. The computation stops as soon as all cells of a row exceed maxDist, because the values
+ * never decrease along a path through the matrix.
+ * Runtime in O(maxDist*min(n,m)), all methods return maxDist+1 if the distance is greater than maxDist.
+ * The rows are taken from the workspace, cells outside the band of the previous row are never read.
+ * Every row charges the cells of its band to the budget of the workspace (see Budget).
+ *
+ * See paper Ukkonen85: "Algorithms for approximate string matching"
+ */
+final class BandedDP {
+    private static final int ROW_BEFORE_LAST = 2; // first saved row in the workspace rows (after current and previous)
+
+    private BandedDP() {}
+
+    static int levenshteinDistance(CharSequence str1, CharSequence str2, int maxDist, EditWorkspace workspace) {
+        // common prefix and suffix do not change the edit distance, only the infixes starting at offset are compared
+        int offset = Affix.prefixLength(str1, str2);
+        int suffixLength = Affix.suffixLength(str1, str2, offset);
+
+        int n = str1.length() - offset - suffixLength;
+        int m = str2.length() - offset - suffixLength;
+        int exceeded = maxDist + 1;
+
+        if (Math.abs(n - m) > maxDist) {
+            return exceeded;
+        } else if (n==0 || m==0) {
+            return Math.max(n, m);
+        }
+
+        int[][] rows = workspace.rows(2, m+1);
+        int[] currentRow = rows[0];
+        int[] previousRow = rows[1];
+
+        // initialize first row
+        for (int j=0; j<m+1; j++) {
+            previousRow[j] = Math.min(j, exceeded);
+        }
+
+        for (int i=1; i<n+1; i++) {
+            int from = Math.max(1, i - maxDist);
+            int to = Math.min(m, i + maxDist);
+            workspace.charge(to - from + 1);
+
+            currentRow[from-1] = from == 1 ? Math.min(i, exceeded) : exceeded;
+            int rowMin = currentRow[from-1];
+
+            for (int j=from; j<to+1; j++) {
+                int value;
+                if (str1.charAt(offset+i-1) == str2.charAt(offset+j-1)) {
+                    value = previousRow[j-1];
+                } else {
+                    value = Math.min(Math.min(
+                            previousRow[j-1] + 1, // substitution
+                            previousRow[j] + 1), // deletion
+                            currentRow[j-1] + 1 // insertion
+                    );
+                }
+                currentRow[j] = Math.min(value, exceeded);
+                rowMin = Math.min(rowMin, currentRow[j]);
+            }
+            if (to < m) {
+                currentRow[to+1] = exceeded; // right border of the band in the next row
+            }
+
+            if (rowMin > maxDist) {
+                return exceeded;
+            }
+
+            // current row is previous row in next iteration
+            int[] tmp = previousRow;
+            previousRow = currentRow;
+            currentRow = tmp;
+        }
+
+        return previousRow[m];
+    }
+
+    static int optimalAlignmentDistance(CharSequence str1, CharSequence str2, int maxDist, EditWorkspace workspace) {
+        // common prefix and suffix do not change the edit distance, only the infixes starting at offset are compared
+        int offset = Affix.prefixLength(str1, str2);
+        int suffixLength = Affix.suffixLength(str1, str2, offset);
+
+        int n = str1.length() - offset - suffixLength;
+        int m = str2.length() - offset - suffixLength;
+        int exceeded = maxDist + 1;
+
+        if (Math.abs(n - m) > maxDist) {
+            return exceeded;
+        } else if (n==0 || m==0) {
+            return Math.max(n, m);
+        }
+
+        int[][] rows = workspace.rows(3, m+1);
+        int[] currentRow = rows[0];
+        int[] previousRow1 = rows[1];
+        int[] previousRow2 = rows[2];
+
+        // initialize first row
+        for (int j=0; j<m+1; j++) {
+            previousRow1[j] = Math.min(j, exceeded);
+        }
+
+        for (int i=1; i<n+1; i++) {
+            int from = Math.max(1, i - maxDist);
+            int to = Math.min(m, i + maxDist);
+            workspace.charge(to - from + 1);
+
+            currentRow[from-1] = from == 1 ? Math.min(i, exceeded) : exceeded;
+            int rowMin = currentRow[from-1];
+
+            for (int j=from; j<to+1; j++) {
+                int value;
+                if (str1.charAt(offset+i-1) == str2.charAt(offset+j-1)) {
+                    value = previousRow1[j-1];
+                } else {
+                    value = Math.min(Math.min(
+                            previousRow1[j-1] + 1, // substitution
+                            previousRow1[j] + 1), // deletion
+                            currentRow[j-1] + 1 // insertion
+                    );
+                    if (i>1 && j>1 && str1.charAt(offset+i-1) == str2.charAt(offset+j-2)
+                            && str1.charAt(offset+i-2) == str2.charAt(offset+j-1)) {
+                        value = Math.min(value, previousRow2[j-2] + 1); // transposition
+                    }
+                }
+                currentRow[j] = Math.min(value, exceeded);
+                rowMin = Math.min(rowMin, currentRow[j]);
+            }
+            if (to < m) {
+                currentRow[to+1] = exceeded; // right border of the band in the next row
+            }
+
+            if (rowMin > maxDist) {
+                return exceeded;
+            }
+
+            // rotate rows: current -> previous 1 -> previous 2 -> current
+            int[] tmp = previousRow2;
+            previousRow2 = previousRow1;
+            previousRow1 = currentRow;
+            currentRow = tmp;
+        }
+
+        return previousRow1[m];
+    }
+
+    /*
+     * Lowrance-Wagner recurrence restricted to the band.
+     *
+     * The transposition case looks back to the row before the last occurrence of the current character of str2 in
+     * str1. Instead of the full matrix, only this row is kept per character, and only for the characters that occur in
+     * both strings. The row of a character is allocated when it first occurs in str1, so the space is in
+     * O(sigma*min(n,m)), where sigma is the number of distinct characters that str1 and str2 have in common (e.g.,
+     * sigma=2000 and min(n,m)=20000 take 160 MB). Row arrays are recycled: the row that gets replaced when a character
+     * occurs again becomes the next current row.
+     * A transposition that skips s characters costs at least s+1, lookbacks beyond the bound are skipped.
+     */
+    static int damerauLevenshteinDistance(CharSequence str1, CharSequence str2, int maxDist, EditWorkspace workspace) {
+        // common prefix and suffix do not change the edit distance, only the infixes starting at offset are compared
+        int offset = Affix.prefixLength(str1, str2);
+        int suffixLength = Affix.suffixLength(str1, str2, offset);
+
+        // ensure space in O(min(n,m)) per row
+        if (str1.length() < str2.length()) {
+            CharSequence tmp = str1;
+            str1 = str2;
+            str2 = tmp;
+        }
+
+        int n = str1.length() - offset - suffixLength;
+        int m = str2.length() - offset - suffixLength;
+        int exceeded = maxDist + 1;
+
+        if (n - m > maxDist) {
+            return exceeded;
+        } else if (m==0) {
+            return n;
+        }
+
+        // slots 1..common for the characters that occur in both strings, characters of only one string get NONE
+        Alphabet alphabet = workspace.alphabet();
+        for (int pos=0; pos<m; pos++) {
+            alphabet.add(str2.charAt(offset + pos));
+        }
+        int[] symbols = workspace.symbols(m + alphabet.size() + 1);
+        int[] slots2 = symbols; // slots2[pos]: slot of str2[offset+pos]
+        int commonSlotsOffset = m; // symbols[commonSlotsOffset + slot]: common slot of an alphabet slot
+        Arrays.fill(symbols, commonSlotsOffset, commonSlotsOffset + alphabet.size() + 1, Alphabet.NONE);
+        for (int i=0; i<n; i++) {
+            int slot = alphabet.slotOf(str1.charAt(offset + i));
+            if (slot != Alphabet.NONE) {
+                symbols[commonSlotsOffset + slot] = 1;
+            }
+        }
+        int common = 0;
+        for (int slot=1; slot<=alphabet.size(); slot++) {
+            if (symbols[commonSlotsOffset + slot] != Alphabet.NONE) {
+                symbols[commonSlotsOffset + slot] = ++common;
+            }
+        }
+        for (int pos=0; pos<m; pos++) {
+            slots2[pos] = symbols[commonSlotsOffset + alphabet.slotOf(str2.charAt(offset + pos))];
+        }
+
+        // last row in which a common character occurred in str1 (0: not yet)
+        int[] lastRow = workspace.counts(common + 1);
+        // rows[ROW_BEFORE_LAST + slot] is the row before the last occurrence of the character in the slot
+        int[][] rows = workspace.rowSlots(ROW_BEFORE_LAST + common + 1, m+1);
+
+        int[] currentRow = workspace.row(rows, 0, m+1);
+        int[] previousRow = workspace.row(rows, 1, m+1);
+
+        // initialize first row
+        for (int j=0; j<m+1; j++) {
+            previousRow[j] = Math.min(j, exceeded);
+        }
+
+        for (int i=1; i<n+1; i++) {
+            int from = Math.max(1, i - maxDist);
+            int to = Math.min(m, i + maxDist);
+            workspace.charge(to - from + 1);
+
+            currentRow[from-1] = from == 1 ? Math.min(i, exceeded) : exceeded;
+            int rowMin = currentRow[from-1];
+            int lastColumn = 0; // last column in current row with a match
+            int slot1 = symbols[commonSlotsOffset + alphabet.slotOf(str1.charAt(offset+i-1))];
+
+            for (int j=from; j<to+1; j++) {
+                int slot = slots2[j-1];
+                int k = lastRow[slot];
+                int l = lastColumn;
+                int cost;
+
+                if (slot1 == slot && slot1 != Alphabet.NONE) {
+                    cost = 0;
+                    lastColumn = j;
+                } else {
+                    cost = 1;
+                }
+
+                int value = Math.min(Math.min(
+                        previousRow[j-1] + cost, // substitution
+                        previousRow[j] + 1), // deletion
+                        currentRow[j-1] + 1 // insertion
+                );
+                if (k > 0 && l > 0 && i-k <= maxDist && Math.abs(k-l) <= maxDist) {
+                    value = Math.min(value,
+                            rows[ROW_BEFORE_LAST + slot][l-1] + (i-k-1) + 1 + (j-l-1) // transposition
+                    );
+                }
+                currentRow[j] = Math.min(value, exceeded);
+                rowMin = Math.min(rowMin, currentRow[j]);
+            }
+            if (to < m) {
+                currentRow[to+1] = exceeded; // right border of the band in the next row
+            }
+
+            if (rowMin > maxDist) {
+                return exceeded;
+            }
+
+            int[] recycledRow;
+            if (slot1 != Alphabet.NONE) {
+                // previous row is the row before the last occurrence of this character from now on
+                recycledRow = lastRow[slot1] == 0
+                        ? workspace.row(rows, ROW_BEFORE_LAST + slot1, m+1) // first occurrence
+                        : rows[ROW_BEFORE_LAST + slot1];
+                rows[ROW_BEFORE_LAST + slot1] = previousRow;
+                lastRow[slot1] = i;
+            } else {
+                recycledRow = previousRow;
+            }
+
+            // current row is previous row in next iteration, the workspace rows stay a permutation of the same arrays
+            previousRow = currentRow;
+            currentRow = recycledRow;
+            rows[0] = currentRow;
+            rows[1] = previousRow;
+        }
+
+        return previousRow[m];
+    }
+}
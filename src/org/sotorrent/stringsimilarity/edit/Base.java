@@ -2,7 +2,7 @@ package org.sotorrent.stringsimilarity.edit;
 
 import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import static org.sotorrent.stringsimilarity.Normalization.normalizeForEdit;
 
@@ -10,6 +10,8 @@ import static org.sotorrent.stringsimilarity.Normalization.normalizeForEdit;
  * Edit-based similarity metrics.
  *
  * All base metrics must return a value between 0.0 and 1.0.
+ * The distance methods take their scratch memory from an EditWorkspace, either passed explicitly or the one of the
+ * calling thread (see EditWorkspace.current()).
  */
 public class Base {
     /*
@@ -19,11 +21,13 @@ public class Base {
 
     /*
      * Similarity metric based on Levenshtein distance.
-     * Implements dynamic programming approach by Wagner–Fischer (space in O(min(n,m)), runtime in O(nm)).
+     * Implements the bit-parallel approach by Myers/Hyyrö (space in O(min(n,m)), runtime in O(ceil(min(n,m)/64)*max(n,m))).
+     * It computes the same values as the dynamic programming approach by Wagner–Fischer.
      *
      * See: https://en.wikipedia.org/wiki/Levenshtein_distance
      * See: https://en.wikipedia.org/wiki/Wagner%E2%80%93Fischer_algorithm
      * See: https://github.com/tdebatty/java-string-similarity#levenshtein
+     * See: BitParallel.levenshteinDistance
      */
     static double levenshtein(String str1, String str2) {
         int n = str1.length();
@@ -37,53 +41,38 @@ public class Base {
     }
 
     public static int levenshteinDistance(String str1, String str2) {
-        int n = str1.length();
-        int m = str2.length();
-
-        if (n==0 && m==0) {
-            return 0; // empty strings have edit distance 0
-        }
+        return levenshteinDistance(str1, str2, EditWorkspace.current());
+    }
 
-        // ensure space in O(min(n,m))
-        if (n>m) {
-            String tmpStr = str1;
-            str1 = str2;
-            str2 = tmpStr;
-            int tmpInt = n;
-            n = m;
-            m = tmpInt;
+    public static int levenshteinDistance(String str1, String str2, EditWorkspace workspace) {
+        if (str1.equals(str2)) {
+            return 0; // identical strings have edit distance 0
         }
 
-        int[] current_row = new int[m+1];
-        int[] previous_row = new int[m+1];
-
-        // initialize first row
-        for (int i=0; i<m+1; i++) {
-            previous_row[i] = i; // str1 empty => str2 is i deletions aways from str1
-        }
+        // common prefix and suffix do not change the edit distance
+        int prefixLength = Affix.prefixLength(str1, str2);
+        int suffixLength = Affix.suffixLength(str1, str2, prefixLength);
+        return bitParallel(str1, str2, prefixLength, suffixLength, workspace, BitParallel::levenshteinDistance);
+    }
 
-        for (int i=1; i<n+1; i++) {
-            current_row[0] = i+1; // str1 is max. i+1 deletions away from str1
-
-            for (int j=1; j<m+1; j++) {
-                if (str1.charAt(i-1) == str2.charAt(j-1)) {
-                    current_row[j] = previous_row[j-1];
-                } else {
-                    current_row[j] = Math.min(Math.min(
-                            previous_row[j-1] + 1, // substitution
-                            previous_row[j] + 1), // deletion
-                            current_row[j-1] + 1 // insertion
-                    );
-                }
-            }
+    /*
+     * Threshold-bounded Levenshtein distance, only computes a diagonal band of the DP matrix.
+     * Returns maxDist+1 if the distance is greater than maxDist.
+     *
+     * See: BandedDP
+     */
+    public static int levenshteinDistance(String str1, String str2, int maxDist) {
+        return levenshteinDistance(str1, str2, maxDist, EditWorkspace.current());
+    }
 
-            // current row is previous row in next iteration
-            int[] tmp = previous_row;
-            previous_row = current_row;
-            current_row = tmp;
-        }
+    public static int levenshteinDistance(String str1, String str2, int maxDist, EditWorkspace workspace) {
+        checkMaxDist(maxDist);
+        return BandedDP.levenshteinDistance(str1, str2, maxDist, workspace);
+    }
 
-        return previous_row[m];
+    // same result as levenshtein(str1, str2) >= minSim
+    public static boolean levenshteinAtLeast(String str1, String str2, double minSim) {
+        return atLeast(str1, str2, minSim, BandedDP::levenshteinDistance);
     }
 
     /*
@@ -101,7 +90,8 @@ public class Base {
 
     /*
      * Similarity metric based on Damerau-Levenshtein distance.
-     * Implements dynamic programming approach by Lowrance-Wagner (space in O(nm), runtime in O(nm)).
+     * Implements dynamic programming approach by Lowrance-Wagner (space in O(sigma*min(n,m)), runtime in O(nm)).
+     * Only the rows needed for the transposition lookback are kept, one per character (see BandedDP).
      *
      * See: https://en.wikipedia.org/wiki/Damerau%E2%80%93Levenshtein_distance
      * See: ttps://github.com/tdebatty/java-string-similarity#damerau-levenshtein
@@ -114,54 +104,36 @@ public class Base {
             return 1.0; // empty strings have similarity 1
         }
 
-        int[][] dist = new int[n+2][m+2]; // initialized with 0s
-        int maxDist = n+m;
+        return (double) (Math.max(n, m) - damerauLevenshteinDistance(str1, str2)) / Math.max(n, m);
+    }
 
-        // initialize array
-        dist[0][0] = maxDist;
-        for (int i=1; i<n+2; i++) {
-            dist[i][0] = maxDist;
-            dist[i][1] = i-1;
-        }
-        for (int j=1; j<m+2; j++) {
-            dist[0][j] = maxDist;
-            dist[1][j] = j-1;
-        }
+    public static int damerauLevenshteinDistance(String str1, String str2) {
+        return damerauLevenshteinDistance(str1, str2, EditWorkspace.current());
+    }
 
-        HashMap<Character, Integer> d_str1 = new HashMap<>();
-        for (int pos=0; pos<str1.length(); pos++) {
-            d_str1.put(str1.charAt(pos), 1);
-        }
-        for (int pos=0; pos<str2.length(); pos++) {
-            d_str1.put(str2.charAt(pos), 1);
-        }
-        int d_str2;
-
-        for (int i=2; i<n+2; i++) {
-            d_str2 = 1;
-            for (int j=2; j<m+2; j++) {
-                int i_t = d_str1.get(str2.charAt(j-2));
-                int j_t = d_str2;
-                int cost;
-
-                if (str1.charAt(i-2) == str2.charAt(j-2)) {
-                    cost = 0;
-                    d_str2 = j;
-                } else {
-                    cost = 1;
-                }
-
-                dist[i][j] = Math.min(Math.min(Math.min(
-                        dist[i-1][j-1] + cost, // substitution
-                        dist[i-1][j] + 1), // deletion
-                        dist[i][j-1] + 1), // insertion
-                        dist[i_t-1][j_t-1] + (i-i_t-1) + 1 + (j-j_t-1) // transposition
-                );
-            }
-            d_str1.put(str1.charAt(i-2), i);
-        }
+    public static int damerauLevenshteinDistance(String str1, String str2, EditWorkspace workspace) {
+        // a band covering the whole matrix never terminates early
+        return BandedDP.damerauLevenshteinDistance(str1, str2, Math.max(str1.length(), str2.length()), workspace);
+    }
 
-        return (double) (Math.max(n, m) - dist[n+1][m+1]) / Math.max(n, m);
+    /*
+     * Threshold-bounded Damerau-Levenshtein distance, only computes a diagonal band of the DP matrix.
+     * Returns maxDist+1 if the distance is greater than maxDist.
+     *
+     * See: BandedDP
+     */
+    public static int damerauLevenshteinDistance(String str1, String str2, int maxDist) {
+        return damerauLevenshteinDistance(str1, str2, maxDist, EditWorkspace.current());
+    }
+
+    public static int damerauLevenshteinDistance(String str1, String str2, int maxDist, EditWorkspace workspace) {
+        checkMaxDist(maxDist);
+        return BandedDP.damerauLevenshteinDistance(str1, str2, maxDist, workspace);
+    }
+
+    // same result as damerauLevenshtein(str1, str2) >= minSim
+    public static boolean damerauLevenshteinAtLeast(String str1, String str2, double minSim) {
+        return atLeast(str1, str2, minSim, BandedDP::damerauLevenshteinDistance);
     }
 
     /*
@@ -179,81 +151,89 @@ public class Base {
 
     /*
      * Similarity metric based on optimal alignment.
-     * Implements dynamic programming approach (space in O(min(n,m)), runtime in O(nm)).
+     * Implements the bit-parallel approach by Hyyrö (space in O(min(n,m)), runtime in O(ceil(min(n,m)/64)*max(n,m))),
+     * see BitParallel.optimalAlignmentDistance. It computes the same values as the dynamic programming approach.
      *
      * See: https://en.wikipedia.org/wiki/Damerau%E2%80%93Levenshtein_distance#Optimal_string_alignment_distance
      * See: https://en.wikipedia.org/wiki/Needleman%E2%80%93Wunsch_algorithm
      */
     public static <T> double optimalAlignment(List<T> tokens1, List<T> tokens2) {
-        int n = tokens1.size();
-        int m = tokens2.size();
+        // map equal tokens to equal IDs, then use the bit-parallel kernel
+        Map<T, Integer> ids = new HashMap<>();
+        return optimalAlignment(tokenIds(tokens1, ids), tokenIds(tokens2, ids));
+    }
+
+    // specialization for token IDs, see optimalAlignment(List<T>, List<T>)
+    public static double optimalAlignment(int[] tokens1, int[] tokens2) {
+        int n = tokens1.length;
+        int m = tokens2.length;
 
         if (n==0 && m==0) {
             return 1.0; // empty strings have similarity 1
         }
 
-        // ensure space in O(min(n,m))
-        if (m<n) {
-            List<T> tmp = tokens1;
-            tokens1 = tokens2;
-            tokens2 = tmp;
-            int tmpInt = n;
-            n = m;
-            m = tmpInt;
+        return (double) (Math.max(n, m) - optimalAlignmentDistance(tokens1, tokens2)) / Math.max(n, m);
+    }
+
+    public static double optimalAlignment(CharSequence str1, CharSequence str2) {
+        int n = str1.length();
+        int m = str2.length();
+
+        if (n==0 && m==0) {
+            return 1.0; // empty strings have similarity 1
         }
 
-        int[] current_row = new int[m+1];
-        int[] previous_row_1 = new int[m+1];
-        int[] previous_row_2 = new int[m+1];
+        return (double) (Math.max(n, m) - optimalAlignmentDistance(str1, str2)) / Math.max(n, m);
+    }
+
+    public static int optimalAlignmentDistance(int[] tokens1, int[] tokens2) {
+        return optimalAlignmentDistance(tokens1, tokens2, EditWorkspace.current());
+    }
 
-        // initialize first row
-        for (int i=0; i<m+1; i++) {
-            previous_row_1[i] = i; // str1 empty => str2 is i deletions aways from str1
+    public static int optimalAlignmentDistance(int[] tokens1, int[] tokens2, EditWorkspace workspace) {
+        if (tokens1 == tokens2) {
+            return 0;
         }
 
-        for (int i=1; i<n+1; i++) {
-            current_row[0] = i+1; // str1 is max. i+1 deletions away from str1
-
-            for (int j=1; j<m+1; j++) {
-                if (tokens1.get(i-1).equals(tokens2.get(j-1))) {
-                    current_row[j] = previous_row_1[j-1];
-                } else {
-                    current_row[j] = Math.min(Math.min(
-                            previous_row_1[j-1] + 1, // substitution
-                            previous_row_1[j] + 1), // deletion
-                            current_row[j-1] + 1 // insertion
-                    );
-                    if (i>1 && j>1 && tokens1.get(i-1).equals(tokens2.get(j-2)) && tokens1.get(i-2).equals(tokens2.get(j-1))) {
-                        current_row[j] = Math.min(
-                                current_row[j],
-                                previous_row_2[j-2]+1 // transposition
-                        );
-                    }
-                }
-            }
+        // common prefix and suffix do not change the edit distance
+        int prefixLength = Affix.prefixLength(tokens1, tokens2);
+        int suffixLength = Affix.suffixLength(tokens1, tokens2, prefixLength);
+        return bitParallel(tokens1, tokens2, prefixLength, suffixLength, workspace, BitParallel::optimalAlignmentDistance);
+    }
 
-            // current row is previous row 1 in next iteration
-            int[] tmp = previous_row_1;
-            previous_row_1 = current_row;
-            current_row = tmp;
-            // previous row 1 is previous row 2 in next iteration
-            tmp = current_row; // stores previous row 1 after above swap
-            current_row = previous_row_2;
-            previous_row_2 = tmp;
+    public static int optimalAlignmentDistance(CharSequence str1, CharSequence str2) {
+        return optimalAlignmentDistance(str1, str2, EditWorkspace.current());
+    }
+
+    public static int optimalAlignmentDistance(CharSequence str1, CharSequence str2, EditWorkspace workspace) {
+        if (str1 == str2) {
+            return 0;
         }
 
-        return (double) (Math.max(n, m) - previous_row_1[m]) / Math.max(n, m);
+        // common prefix and suffix do not change the edit distance
+        int prefixLength = Affix.prefixLength(str1, str2);
+        int suffixLength = Affix.suffixLength(str1, str2, prefixLength);
+        return bitParallel(str1, str2, prefixLength, suffixLength, workspace, BitParallel::optimalAlignmentDistance);
     }
 
-    static double optimalAlignment(String str1, String str2) {
-        return optimalAlignment(
-                str1.chars()
-                        .mapToObj(i -> String.valueOf((char)i)) // see http://stackoverflow.com/a/22436638
-                        .collect(Collectors.toList()),
-                str2.chars()
-                        .mapToObj(i -> String.valueOf((char)i)) // see http://stackoverflow.com/a/22436638
-                        .collect(Collectors.toList())
-        );
+    /*
+     * Threshold-bounded optimal string alignment distance, only computes a diagonal band of the DP matrix.
+     * Returns maxDist+1 if the distance is greater than maxDist.
+     *
+     * See: BandedDP
+     */
+    public static int optimalAlignmentDistance(String str1, String str2, int maxDist) {
+        return optimalAlignmentDistance(str1, str2, maxDist, EditWorkspace.current());
+    }
+
+    public static int optimalAlignmentDistance(String str1, String str2, int maxDist, EditWorkspace workspace) {
+        checkMaxDist(maxDist);
+        return BandedDP.optimalAlignmentDistance(str1, str2, maxDist, workspace);
+    }
+
+    // same result as optimalAlignment(str1, str2) >= minSim
+    public static boolean optimalAlignmentAtLeast(String str1, String str2, double minSim) {
+        return atLeast(str1, str2, minSim, BandedDP::optimalAlignmentDistance);
     }
 
     /*
@@ -271,63 +251,171 @@ public class Base {
 
     /*
      * Similarity metric based on longest common subseqence.
-     * Implemented using dynamic programming (space in O(min(n,m)) and runtime in O(nm)).
+     * Implemented using the bit-parallel approach by Allison-Dix/Hyyrö (space in O(min(n,m)),
+     * runtime in O(ceil(min(n,m)/64)*max(n,m))), see BitParallel.longestCommonSubsequenceLength.
      *
      * See paper Bakkelund09.
      * See: https://en.wikipedia.org/wiki/Longest_common_subsequence_problem
      * See: https://github.com/tdebatty/java-string-similarity#metric-longest-common-subsequence
      */
     public static <T> double longestCommonSubsequence(List<T> tokens1, List<T> tokens2) {
-        int n = tokens1.size();
-        int m = tokens2.size();
+        // map equal tokens to equal IDs, then use the bit-parallel kernel
+        Map<T, Integer> ids = new HashMap<>();
+        return longestCommonSubsequence(tokenIds(tokens1, ids), tokenIds(tokens2, ids));
+    }
+
+    // specialization for token IDs, see longestCommonSubsequence(List<T>, List<T>)
+    public static double longestCommonSubsequence(int[] tokens1, int[] tokens2) {
+        int n = tokens1.length;
+        int m = tokens2.length;
 
         if (n==0 && m==0) {
             return 1.0; // empty strings have similarity 1
         }
 
-        // ensure space in O(min(n,m))
-        if (m>n) {
-            List<T> tmp = tokens1;
-            tokens1 = tokens2;
-            tokens2 = tmp;
-            int tmpInt = n;
-            n = m;
-            m = tmpInt;
+        return (double) longestCommonSubsequenceLength(tokens1, tokens2) / Math.max(n, m);
+    }
+
+    public static double longestCommonSubsequence(CharSequence str1, CharSequence str2) {
+        int n = str1.length();
+        int m = str2.length();
+
+        if (n==0 && m==0) {
+            return 1.0; // empty strings have similarity 1
         }
 
-        int[] current_row = new int[m+1]; // initialized with 0s
-        int[] previous_row = new int[m+1]; // initialized with 0s
-
-        for (int i=1; i<n+1; i++) {
-            for (int j=1; j<m+1; j++) {
-                if (tokens1.get(i-1).equals(tokens2.get(j-1))) {
-                    current_row[j] = previous_row[j-1] + 1; // increment LCS of previous position
-                } else {
-                    current_row[j] = Math.max(
-                            current_row[j-1],     // LCS up to previous position in str2
-                            previous_row[j]   // LCS up to previous position in str1
-                    );
-                }
-            }
+        return (double) longestCommonSubsequenceLength(str1, str2) / Math.max(n, m);
+    }
 
-            // current row is previous row in next iteration
-            int[] tmp = previous_row;
-            previous_row = current_row;
-            current_row = tmp;
+    public static int longestCommonSubsequenceLength(int[] tokens1, int[] tokens2) {
+        return longestCommonSubsequenceLength(tokens1, tokens2, EditWorkspace.current());
+    }
+
+    public static int longestCommonSubsequenceLength(int[] tokens1, int[] tokens2, EditWorkspace workspace) {
+        if (tokens1 == tokens2) {
+            return tokens1.length;
         }
 
-        return (double) previous_row[m] / Math.max(n, m);
+        // common prefix and suffix are part of the LCS
+        int prefixLength = Affix.prefixLength(tokens1, tokens2);
+        int suffixLength = Affix.suffixLength(tokens1, tokens2, prefixLength);
+        if (tokens1.length == prefixLength + suffixLength || tokens2.length == prefixLength + suffixLength) {
+            return prefixLength + suffixLength;
+        }
+        return prefixLength + suffixLength
+                + bitParallel(tokens1, tokens2, prefixLength, suffixLength, workspace, BitParallel::longestCommonSubsequenceLength);
     }
 
-    static double longestCommonSubsequence(String str1, String str2) {
-        return longestCommonSubsequence(
-                str1.chars()
-                        .mapToObj(i -> String.valueOf((char)i)) // see http://stackoverflow.com/a/22436638
-                        .collect(Collectors.toList()),
-                str2.chars()
-                        .mapToObj(i -> String.valueOf((char)i)) // see http://stackoverflow.com/a/22436638
-                        .collect(Collectors.toList())
-        );
+    public static int longestCommonSubsequenceLength(CharSequence str1, CharSequence str2) {
+        return longestCommonSubsequenceLength(str1, str2, EditWorkspace.current());
+    }
+
+    public static int longestCommonSubsequenceLength(CharSequence str1, CharSequence str2, EditWorkspace workspace) {
+        if (str1 == str2) {
+            return str1.length();
+        }
+
+        // common prefix and suffix are part of the LCS
+        int prefixLength = Affix.prefixLength(str1, str2);
+        int suffixLength = Affix.suffixLength(str1, str2, prefixLength);
+        if (str1.length() == prefixLength + suffixLength || str2.length() == prefixLength + suffixLength) {
+            return prefixLength + suffixLength;
+        }
+        return prefixLength + suffixLength
+                + bitParallel(str1, str2, prefixLength, suffixLength, workspace, BitParallel::longestCommonSubsequenceLength);
+    }
+
+    /*
+     * Longest common subsequence for nearly identical inputs.
+     * Runs the O((n+m)*D) algorithm by Myers (see MyersDiff) as long as the number of differences D (insertions and
+     * deletions) does not exceed expectedDifferences, otherwise falls back to the bit-parallel approach. The result is
+     * the same as for longestCommonSubsequence(str1, str2) in both cases.
+     */
+    public static double longestCommonSubsequence(CharSequence str1, CharSequence str2, int expectedDifferences) {
+        int n = str1.length();
+        int m = str2.length();
+
+        if (n==0 && m==0) {
+            return 1.0; // empty strings have similarity 1
+        }
+
+        return (double) longestCommonSubsequenceLength(str1, str2, expectedDifferences, EditWorkspace.current())
+                / Math.max(n, m);
+    }
+
+    public static double longestCommonSubsequence(int[] tokens1, int[] tokens2, int expectedDifferences) {
+        int n = tokens1.length;
+        int m = tokens2.length;
+
+        if (n==0 && m==0) {
+            return 1.0; // empty strings have similarity 1
+        }
+
+        return (double) longestCommonSubsequenceLength(tokens1, tokens2, expectedDifferences, EditWorkspace.current())
+                / Math.max(n, m);
+    }
+
+    public static int longestCommonSubsequenceLength(CharSequence str1, CharSequence str2, int expectedDifferences,
+                                                     EditWorkspace workspace) {
+        checkMaxDist(expectedDifferences);
+        int dist = insertDeleteDistance(str1, str2, expectedDifferences, workspace);
+        if (dist > expectedDifferences) {
+            return longestCommonSubsequenceLength(str1, str2, workspace);
+        }
+        return (str1.length() + str2.length() - dist) / 2;
+    }
+
+    public static int longestCommonSubsequenceLength(int[] tokens1, int[] tokens2, int expectedDifferences,
+                                                     EditWorkspace workspace) {
+        checkMaxDist(expectedDifferences);
+        int dist = insertDeleteDistance(tokens1, tokens2, expectedDifferences, workspace);
+        if (dist > expectedDifferences) {
+            return longestCommonSubsequenceLength(tokens1, tokens2, workspace);
+        }
+        return (tokens1.length + tokens2.length - dist) / 2;
+    }
+
+    /*
+     * Insert/delete distance (number of insertions and deletions needed to transform str1 into str2, n+m-2*LCS).
+     * Implements the algorithm by Myers (space in O(D), runtime in O((n+m)*D)), see MyersDiff.
+     * The threshold-bounded variants stop after maxDist differences and return maxDist+1.
+     */
+    public static int insertDeleteDistance(CharSequence str1, CharSequence str2) {
+        return insertDeleteDistance(str1, str2, Integer.MAX_VALUE, EditWorkspace.current());
+    }
+
+    public static int insertDeleteDistance(CharSequence str1, CharSequence str2, int maxDist) {
+        return insertDeleteDistance(str1, str2, maxDist, EditWorkspace.current());
+    }
+
+    public static int insertDeleteDistance(CharSequence str1, CharSequence str2, int maxDist, EditWorkspace workspace) {
+        checkMaxDist(maxDist);
+
+        // common prefix and suffix do not change the distance
+        int prefixLength = Affix.prefixLength(str1, str2);
+        int suffixLength = Affix.suffixLength(str1, str2, prefixLength);
+        int n = str1.length() - prefixLength - suffixLength;
+        int m = str2.length() - prefixLength - suffixLength;
+        return MyersDiff.insertDeleteDistance(str1, str2, prefixLength, n, m, maxDist, workspace);
+    }
+
+    public static int insertDeleteDistance(int[] tokens1, int[] tokens2) {
+        return insertDeleteDistance(tokens1, tokens2, Integer.MAX_VALUE, EditWorkspace.current());
+    }
+
+    public static int insertDeleteDistance(int[] tokens1, int[] tokens2, int maxDist) {
+        return insertDeleteDistance(tokens1, tokens2, maxDist, EditWorkspace.current());
+    }
+
+    public static int insertDeleteDistance(int[] tokens1, int[] tokens2, int maxDist, EditWorkspace workspace) {
+        checkMaxDist(maxDist);
+
+        // common prefix and suffix do not change the distance
+        int prefixLength = Affix.prefixLength(tokens1, tokens2);
+        int suffixLength = Affix.suffixLength(tokens1, tokens2, prefixLength);
+        int n = tokens1.length - prefixLength - suffixLength;
+        int m = tokens2.length - prefixLength - suffixLength;
+        return MyersDiff.insertDeleteDistance(tokens1, tokens2, prefixLength, n, m, maxDist, workspace);
     }
 
     /*
@@ -342,4 +430,141 @@ public class Base {
         );
     }
 
+
+    // ********** EDIT SCRIPT **********
+
+    /*
+     * Edit script that transforms str1 into str2 with the minimum number of insertions, deletions, substitutions, and
+     * transpositions of adjacent characters (optimal string alignment distance, see optimalAlignmentDistance()), i.e.
+     * EditScript.getDistance() equals optimalAlignmentDistance(str1, str2).
+     * Implements the linear-space divide-and-conquer approach by Hirschberg (space in O(min(n,m)), runtime in O(nm)),
+     * see Hirschberg.
+     *
+     * See: https://en.wikipedia.org/wiki/Hirschberg%27s_algorithm
+     */
+    public static EditScript editScript(CharSequence str1, CharSequence str2) {
+        return Hirschberg.editScript(str1, str2);
+    }
+
+
+    // ********** KERNELS **********
+
+    private interface Kernel {
+        int apply(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace);
+    }
+
+    /*
+     * Run a bit-parallel kernel on the infixes between the common prefix and suffix. The shorter infix is used as
+     * pattern to minimize the number of bit vectors, masks and encoded text are kept in the workspace.
+     * If one infix is empty, the result is the length of the other one (all symbols must be inserted).
+     */
+    private static int bitParallel(CharSequence str1, CharSequence str2, int prefixLength, int suffixLength,
+                                   EditWorkspace workspace, Kernel kernel) {
+        int n = str1.length() - prefixLength - suffixLength;
+        int m = str2.length() - prefixLength - suffixLength;
+
+        if (n==0 || m==0) {
+            return Math.max(n, m);
+        }
+
+        if (n>m) {
+            CharSequence tmpStr = str1;
+            str1 = str2;
+            str2 = tmpStr;
+            int tmpLength = n;
+            n = m;
+            m = tmpLength;
+        }
+
+        PatternMasks pattern = workspace.patternMasks();
+        pattern.reset(str1, prefixLength, n);
+        int[] text = workspace.text(m);
+        pattern.encode(str2, prefixLength, m, text);
+        try {
+            return kernel.apply(pattern, text, m, workspace);
+        } finally {
+            workspace.trim();
+        }
+    }
+
+    private static int bitParallel(int[] tokens1, int[] tokens2, int prefixLength, int suffixLength,
+                                   EditWorkspace workspace, Kernel kernel) {
+        int n = tokens1.length - prefixLength - suffixLength;
+        int m = tokens2.length - prefixLength - suffixLength;
+
+        if (n==0 || m==0) {
+            return Math.max(n, m);
+        }
+
+        if (n>m) {
+            int[] tmpTokens = tokens1;
+            tokens1 = tokens2;
+            tokens2 = tmpTokens;
+            int tmpLength = n;
+            n = m;
+            m = tmpLength;
+        }
+
+        PatternMasks pattern = workspace.patternMasks();
+        pattern.reset(tokens1, prefixLength, n);
+        int[] text = workspace.text(m);
+        pattern.encode(tokens2, prefixLength, m, text);
+        try {
+            return kernel.apply(pattern, text, m, workspace);
+        } finally {
+            workspace.trim();
+        }
+    }
+
+
+    // ********** SYMBOLS **********
+
+    /*
+     * Map tokens to int IDs such that tokens1.get(i).equals(tokens2.get(j)) iff the IDs are equal (IDs are shared via
+     * the given map).
+     */
+    private static <T> int[] tokenIds(List<T> tokens, Map<T, Integer> ids) {
+        int[] tokenIds = new int[tokens.size()];
+        int i = 0;
+        for (T token : tokens) {
+            Integer id = ids.get(token);
+            if (id == null) {
+                id = ids.size();
+                ids.put(token, id);
+            }
+            tokenIds[i++] = id;
+        }
+        return tokenIds;
+    }
+
+
+    // ********** THRESHOLDS **********
+
+    private interface BoundedDistance {
+        int apply(CharSequence str1, CharSequence str2, int maxDist, EditWorkspace workspace);
+    }
+
+    private static void checkMaxDist(int maxDist) {
+        if (maxDist < 0) {
+            throw new IllegalArgumentException("Maximum distance must not be negative.");
+        }
+    }
+
+    /*
+     * Translate the similarity threshold into a distance bound for the banded DP.
+     * The bound is one larger than necessary to absorb rounding errors, the final decision uses the same formula as the
+     * similarity metrics.
+     */
+    private static boolean atLeast(String str1, String str2, double minSim, BoundedDistance boundedDistance) {
+        int maxLength = Math.max(str1.length(), str2.length());
+
+        if (maxLength == 0) {
+            return 1.0 >= minSim; // empty strings have similarity 1.0
+        }
+
+        int maxDist = (int) Math.max(0, Math.min(maxLength, Math.floor((1.0 - minSim) * maxLength) + 1));
+        int dist = boundedDistance.apply(str1, str2, maxDist, EditWorkspace.current());
+
+        return dist <= maxDist && (double) (maxLength - dist) / maxLength >= minSim;
+    }
 }
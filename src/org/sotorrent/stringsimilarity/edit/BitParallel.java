@@ -0,0 +1,329 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.Arrays;
+
+/*
+ * Bit-parallel kernels for the edit-based metrics.
+ *
+ * The pattern (vertical axis of the DP matrix) is packed into 64-bit words, one bit per row.
+ * Instead of the cell values, the kernels store the vertical deltas (+1/-1) between neighbouring rows of the
+ * current column and update all rows of a word with a constant number of bit operations per text symbol.
+ * Patterns with at most 64 symbols use a single word, longer patterns are split into blocks of words.
+ * Runtime in O(ceil(m/64)*n), space in O(sigma*ceil(m/64)) for the pattern masks.
+ * The texts are passed as slot arrays (see PatternMasks) of which only the first textLength entries are read, the
+ * bit vectors of the blocked variants are taken from the workspace.
+ * On Java 17 and later, long patterns use the SIMD variants if the Vector API is available (see VectorKernels).
+ * Very long inputs are split into tiles that are processed in parallel (see Wavefront).
+ * The blocked kernels charge pattern.length() cells per text symbol to the budget of the workspace (see Budget), the
+ * single-word kernels run in linear time and charge all cells up front.
+ */
+final class BitParallel {
+    private BitParallel() {}
+
+    /*
+     * Levenshtein distance based on the bit-vector algorithm by Myers in the formulation by Hyyrö.
+     *
+     * See paper Myers99: "A fast bit-vector algorithm for approximate string matching based on dynamic programming"
+     * See paper Hyyro03: "A bit-vector algorithm for computing Levenshtein and Damerau edit distances"
+     */
+    static int levenshteinDistance(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        return levenshteinDistance(pattern, text, textLength, Integer.MAX_VALUE, workspace);
+    }
+
+    /*
+     * Threshold-bounded variant, returns maxDist+1 if the distance is greater than maxDist.
+     * The value in the last row can decrease by at most one per remaining text symbol, so the scalar kernels stop as
+     * soon as it exceeds maxDist by more than the number of remaining symbols.
+     */
+    static int levenshteinDistance(PatternMasks pattern, int[] text, int textLength, int maxDist,
+                                   EditWorkspace workspace) {
+        int dist;
+        if (pattern.length() == 0) {
+            dist = textLength;
+        } else if (pattern.words() == 1) {
+            workspace.charge((long) pattern.length() * textLength);
+            dist = levenshteinDistanceSingleWord(pattern, text, textLength, maxDist);
+        } else if (Wavefront.applies(pattern, textLength)) {
+            dist = Wavefront.levenshteinDistance(pattern, text, textLength, workspace);
+        } else if (VectorKernels.supports(pattern.words())) {
+            dist = VectorKernels.levenshteinDistance(pattern, text, textLength, workspace);
+        } else {
+            dist = levenshteinDistanceBlocked(pattern, text, textLength, maxDist, workspace);
+        }
+        return dist > maxDist ? maxDist + 1 : dist;
+    }
+
+    private static int levenshteinDistanceSingleWord(PatternMasks pattern, int[] text, int textLength, int maxDist) {
+        long[] masks = pattern.masks();
+        long last = 1L << (pattern.length() - 1);
+        long vp = ~0L; // vertical positive deltas
+        long vn = 0L; // vertical negative deltas
+        int dist = pattern.length();
+
+        for (int j=0; j<textLength; j++) {
+            int slot = text[j];
+            long pm = masks[slot];
+            long d0 = (((pm & vp) + vp) ^ vp) | pm | vn;
+            long hp = vn | ~(d0 | vp); // horizontal positive deltas
+            long hn = d0 & vp; // horizontal negative deltas
+
+            if ((hp & last) != 0) {
+                dist++;
+            } else if ((hn & last) != 0) {
+                dist--;
+            }
+            if (dist - (textLength - j - 1) > maxDist) {
+                return dist; // bound exceeded
+            }
+
+            hp = (hp << 1) | 1L; // first row: D[0][j] = j
+            hn = hn << 1;
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+        }
+
+        return dist;
+    }
+
+    static int levenshteinDistanceBlocked(PatternMasks pattern, int[] text, int textLength, int maxDist,
+                                          EditWorkspace workspace) {
+        long[] masks = pattern.masks();
+        int words = pattern.words();
+        long last = 1L << ((pattern.length() - 1) % PatternMasks.WORD_SIZE);
+        long[] vp = workspace.vector(0, words);
+        long[] vn = workspace.vector(1, words);
+        Arrays.fill(vp, 0, words, ~0L);
+        Arrays.fill(vn, 0, words, 0L);
+        int dist = pattern.length();
+
+        for (int j=0; j<textLength; j++) {
+            workspace.charge(pattern.length());
+            int slot = text[j];
+            int offset = slot * words;
+            // horizontal deltas leaving the previous block (first row: +1)
+            long hpCarry = 1L;
+            long hnCarry = 0L;
+
+            for (int word=0; word<words; word++) {
+                long pm = masks[offset + word];
+                long vpWord = vp[word];
+                long vnWord = vn[word];
+
+                long x = pm | hnCarry;
+                long d0 = (((x & vpWord) + vpWord) ^ vpWord) | x | vnWord;
+                long hp = vnWord | ~(d0 | vpWord);
+                long hn = d0 & vpWord;
+
+                if (word == words - 1) {
+                    if ((hp & last) != 0) {
+                        dist++;
+                    } else if ((hn & last) != 0) {
+                        dist--;
+                    }
+                }
+
+                long hpOut = hp >>> 63;
+                long hnOut = hn >>> 63;
+                hp = (hp << 1) | hpCarry;
+                hn = (hn << 1) | hnCarry;
+                hpCarry = hpOut;
+                hnCarry = hnOut;
+
+                vp[word] = hn | ~(d0 | hp);
+                vn[word] = hp & d0;
+            }
+
+            if (dist - (textLength - j - 1) > maxDist) {
+                return dist; // bound exceeded
+            }
+        }
+
+        return dist;
+    }
+
+    /*
+     * Optimal string alignment distance (restricted Damerau-Levenshtein distance) based on the extension of Myers'
+     * algorithm by Hyyrö. A diagonal step may additionally be a transposition if the pattern matched the current text
+     * symbol one row above and the previous text symbol at the current row (TR vector).
+     *
+     * See paper Hyyro03: "A bit-vector algorithm for computing Levenshtein and Damerau edit distances"
+     */
+    static int optimalAlignmentDistance(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        if (pattern.length() == 0) {
+            return textLength;
+        }
+        if (pattern.words() == 1) {
+            workspace.charge((long) pattern.length() * textLength);
+            return optimalAlignmentDistanceSingleWord(pattern, text, textLength, workspace);
+        }
+        return optimalAlignmentDistanceBlocked(pattern, text, textLength, workspace);
+    }
+
+    private static int optimalAlignmentDistanceSingleWord(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        long[] masks = pattern.masks();
+        long last = 1L << (pattern.length() - 1);
+        long vp = ~0L;
+        long vn = 0L;
+        long d0 = 0L; // diagonal zero deltas of previous column
+        long previousPm = 0L; // match mask of previous text symbol
+        int dist = pattern.length();
+
+        for (int j=0; j<textLength; j++) {
+            int slot = text[j];
+            long pm = masks[slot];
+            long tr = (((~d0) & pm) << 1) & previousPm; // transpositions
+            d0 = (((pm & vp) + vp) ^ vp) | pm | vn | tr;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+
+            if ((hp & last) != 0) {
+                dist++;
+            } else if ((hn & last) != 0) {
+                dist--;
+            }
+
+            hp = (hp << 1) | 1L; // first row: D[0][j] = j
+            hn = hn << 1;
+            vp = hn | ~(d0 | hp);
+            vn = hp & d0;
+            previousPm = pm;
+        }
+
+        return dist;
+    }
+
+    private static int optimalAlignmentDistanceBlocked(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        long[] masks = pattern.masks();
+        int words = pattern.words();
+        long last = 1L << ((pattern.length() - 1) % PatternMasks.WORD_SIZE);
+        long[] vp = workspace.vector(0, words);
+        long[] vn = workspace.vector(1, words);
+        long[] d0 = workspace.vector(2, words);
+        long[] previousPm = workspace.vector(3, words);
+        Arrays.fill(vp, 0, words, ~0L);
+        Arrays.fill(vn, 0, words, 0L);
+        Arrays.fill(d0, 0, words, 0L);
+        Arrays.fill(previousPm, 0, words, 0L);
+        int dist = pattern.length();
+
+        for (int j=0; j<textLength; j++) {
+            workspace.charge(pattern.length());
+            int slot = text[j];
+            int offset = slot * words;
+            long hpCarry = 1L;
+            long hnCarry = 0L;
+            // values of the previous block, the transposition can cross the block boundary
+            long previousBlockD0 = 0L; // previous column
+            long previousBlockPm = 0L; // current column
+
+            for (int word=0; word<words; word++) {
+                long pm = masks[offset + word];
+                long vpWord = vp[word];
+                long vnWord = vn[word];
+                long d0Word = d0[word];
+
+                long tr = ((((~d0Word) & pm) << 1) | (((~previousBlockD0) & previousBlockPm) >>> 63)) & previousPm[word];
+                long x = pm | hnCarry;
+                long d0New = (((x & vpWord) + vpWord) ^ vpWord) | x | vnWord | tr;
+                long hp = vnWord | ~(d0New | vpWord);
+                long hn = d0New & vpWord;
+
+                if (word == words - 1) {
+                    if ((hp & last) != 0) {
+                        dist++;
+                    } else if ((hn & last) != 0) {
+                        dist--;
+                    }
+                }
+
+                long hpOut = hp >>> 63;
+                long hnOut = hn >>> 63;
+                hp = (hp << 1) | hpCarry;
+                hn = (hn << 1) | hnCarry;
+                hpCarry = hpOut;
+                hnCarry = hnOut;
+
+                vp[word] = hn | ~(d0New | hp);
+                vn[word] = hp & d0New;
+                previousBlockD0 = d0Word;
+                previousBlockPm = pm;
+                d0[word] = d0New;
+                previousPm[word] = pm;
+            }
+        }
+
+        return dist;
+    }
+
+    /*
+     * Length of the longest common subsequence based on the bit-vector algorithm by Allison-Dix in the formulation by
+     * Hyyrö. Bit i of the vector is 0 iff the LCS of the pattern prefix up to i and the text read so far grows at row i.
+     * In the blocked variant, the carry of the addition is propagated from word to word.
+     *
+     * See paper Allison86: "A bit-string longest-common-subsequence algorithm"
+     * See paper Hyyro04: "Bit-parallel LCS-length computation revisited"
+     */
+    static int longestCommonSubsequenceLength(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        if (pattern.length() == 0) {
+            return 0;
+        }
+        if (pattern.words() == 1) {
+            workspace.charge((long) pattern.length() * textLength);
+            return longestCommonSubsequenceLengthSingleWord(pattern, text, textLength, workspace);
+        } else if (Wavefront.applies(pattern, textLength)) {
+            return Wavefront.longestCommonSubsequenceLength(pattern, text, textLength, workspace);
+        } else if (VectorKernels.supports(pattern.words())) {
+            return VectorKernels.longestCommonSubsequenceLength(pattern, text, textLength, workspace);
+        }
+        return longestCommonSubsequenceLengthBlocked(pattern, text, textLength, workspace);
+    }
+
+    private static int longestCommonSubsequenceLengthSingleWord(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        long[] masks = pattern.masks();
+        long s = ~0L;
+
+        for (int j=0; j<textLength; j++) {
+            int slot = text[j];
+            long u = s & masks[slot];
+            s = (s + u) | (s - u);
+        }
+
+        return Long.bitCount(~s & lowBits(pattern.length()));
+    }
+
+    static int longestCommonSubsequenceLengthBlocked(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        long[] masks = pattern.masks();
+        int words = pattern.words();
+        long[] s = workspace.vector(0, words);
+        Arrays.fill(s, 0, words, ~0L);
+
+        for (int j=0; j<textLength; j++) {
+            workspace.charge(pattern.length());
+            int slot = text[j];
+            int offset = slot * words;
+            long carry = 0L;
+
+            for (int word=0; word<words; word++) {
+                long sWord = s[word];
+                long u = sWord & masks[offset + word];
+                // sum = sWord + u + carry with carry out
+                long withCarry = sWord + carry;
+                long sum = withCarry + u;
+                carry = (Long.compareUnsigned(withCarry, carry) < 0 || Long.compareUnsigned(sum, u) < 0) ? 1L : 0L;
+                s[word] = sum | (sWord - u);
+            }
+        }
+
+        int length = 0;
+        for (int word=0; word<words-1; word++) {
+            length += Long.bitCount(~s[word]);
+        }
+        int lastWordLength = pattern.length() - (words - 1) * PatternMasks.WORD_SIZE;
+        return length + Long.bitCount(~s[words-1] & lowBits(lastWordLength));
+    }
+
+    // mask with the lowest count bits set (1 <= count <= 64)
+    private static long lowBits(int count) {
+        return count == PatternMasks.WORD_SIZE ? ~0L : (1L << count) - 1;
+    }
+}
@@ -0,0 +1,87 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Budget for one comparison: a maximum number of DP cells (pattern symbols times text symbols), a maximum wall time,
+ * or both.
+ *
+ * The kernels (see BitParallel, BandedDP, MyersDiff, Wavefront) charge the cells they process to the budget of their
+ * workspace cooperatively, once per text column or DP row, and the comparison is aborted with a
+ * BudgetExceededException as soon as a limit is exceeded. The clock is only read every CLOCK_CHECK_CELLS cells.
+ * Budgets are immutable, see BudgetedMetric for running a metric under a budget.
+ */
+public final class Budget {
+    public static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, Long.MAX_VALUE);
+    static final long CLOCK_CHECK_CELLS = 1L << 20;
+
+    private final long maxCells;
+    private final long maxNanos;
+
+    private Budget(long maxCells, long maxNanos) {
+        this.maxCells = maxCells;
+        this.maxNanos = maxNanos;
+    }
+
+    public static Budget cells(long maxCells) {
+        return UNLIMITED.withCells(maxCells);
+    }
+
+    public static Budget time(long duration, TimeUnit unit) {
+        return UNLIMITED.withTime(duration, unit);
+    }
+
+    public Budget withCells(long maxCells) {
+        if (maxCells < 0) {
+            throw new IllegalArgumentException("Cell budget must not be negative.");
+        }
+        return new Budget(maxCells, maxNanos);
+    }
+
+    public Budget withTime(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Time budget must not be negative.");
+        }
+        return new Budget(maxCells, unit.toNanos(duration));
+    }
+
+    public long getMaxCells() {
+        return maxCells;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Budget{maxCells=" + (maxCells == Long.MAX_VALUE ? "unlimited" : maxCells)
+                + ", maxNanos=" + (maxNanos == Long.MAX_VALUE ? "unlimited" : maxNanos) + "}";
+    }
+
+    // cells and time spent by one comparison, checked by EditWorkspace.charge()
+    static final class Meter {
+        private final Budget budget;
+        private final long startNanos = System.nanoTime();
+        private long cells = 0;
+        private long nextClockCheck = CLOCK_CHECK_CELLS;
+
+        Meter(Budget budget) {
+            this.budget = budget;
+        }
+
+        void charge(long count) {
+            cells += count;
+            if (cells > budget.maxCells) {
+                throw new BudgetExceededException(budget, cells, System.nanoTime() - startNanos);
+            }
+            if (cells >= nextClockCheck) {
+                nextClockCheck = cells + CLOCK_CHECK_CELLS;
+                long elapsedNanos = System.nanoTime() - startNanos;
+                if (elapsedNanos > budget.maxNanos) {
+                    throw new BudgetExceededException(budget, cells, elapsedNanos);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.sotorrent.stringsimilarity.edit;
+
+/*
+ * Thrown by the kernels if a comparison exceeds the budget of its workspace (see Budget).
+ */
+public class BudgetExceededException extends RuntimeException {
+    private final Budget budget;
+    private final long cells;
+    private final long elapsedNanos;
+
+    public BudgetExceededException(Budget budget, long cells, long elapsedNanos) {
+        super("Comparison exceeded " + budget + " after " + cells + " cells and " + elapsedNanos + " ns.");
+        this.budget = budget;
+        this.cells = cells;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    // cells charged until the comparison was aborted
+    public long getCells() {
+        return cells;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,97 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.function.BiFunction;
+
+/*
+ * Similarity metric that runs under a budget (see Budget) and degrades gracefully for pathological inputs.
+ *
+ * The metric runs with the workspace of the calling thread (see EditWorkspace.current()), so every edit-based metric
+ * in Variants and Default is aborted as soon as its kernels exceed the budget. Without a fallback, compare() rethrows
+ * the BudgetExceededException. With a fallback, e.g. a cheaper profile or fingerprint metric such as
+ * profile.Variants::manhattanFourGramNormalized, the fallback runs without a budget and the result reports
+ * Outcome.FALLBACK instead of Outcome.EXACT.
+ * Metrics that do not use the edit kernels are never aborted.
+ */
+public final class BudgetedMetric {
+    public enum Outcome {
+        EXACT, // the metric finished within the budget
+        FALLBACK // the metric exceeded the budget, the similarity comes from the fallback
+    }
+
+    private final BiFunction<String, String, Double> metric;
+    private final Budget budget;
+    private final BiFunction<String, String, Double> fallback;
+
+    private BudgetedMetric(BiFunction<String, String, Double> metric, Budget budget,
+                           BiFunction<String, String, Double> fallback) {
+        if (metric == null || budget == null) {
+            throw new IllegalArgumentException("Metric and budget must not be null.");
+        }
+        this.metric = metric;
+        this.budget = budget;
+        this.fallback = fallback;
+    }
+
+    public static BudgetedMetric of(BiFunction<String, String, Double> metric, Budget budget) {
+        return new BudgetedMetric(metric, budget, null);
+    }
+
+    public BudgetedMetric withFallback(BiFunction<String, String, Double> fallback) {
+        return new BudgetedMetric(metric, budget, fallback);
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /*
+     * Similarity of str1 and str2 together with the outcome.
+     * Throws BudgetExceededException if the budget is exceeded and there is no fallback.
+     */
+    public Result compare(String str1, String str2) {
+        EditWorkspace workspace = EditWorkspace.current();
+        Budget.Meter previous = workspace.startBudget(budget);
+        try {
+            return new Result(metric.apply(str1, str2), Outcome.EXACT);
+        } catch (BudgetExceededException e) {
+            if (fallback == null) {
+                throw e;
+            }
+        } finally {
+            workspace.restoreBudget(previous);
+        }
+        return new Result(fallback.apply(str1, str2), Outcome.FALLBACK);
+    }
+
+    // the similarity only, for use as BiFunction<String, String, Double>
+    public double similarity(String str1, String str2) {
+        return compare(str1, str2).getSimilarity();
+    }
+
+    public static final class Result {
+        private final double similarity;
+        private final Outcome outcome;
+
+        private Result(double similarity, Outcome outcome) {
+            this.similarity = similarity;
+            this.outcome = outcome;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public boolean isExact() {
+            return outcome == Outcome.EXACT;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{similarity=" + similarity + ", outcome=" + outcome + "}";
+        }
+    }
+}
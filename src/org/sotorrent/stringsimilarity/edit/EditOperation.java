@@ -0,0 +1,34 @@
+package org.sotorrent.stringsimilarity.edit;
+
+/*
+ * Operations of an edit script (see EditScript), applied from left to right to transform str1 into str2.
+ */
+public enum EditOperation {
+    MATCH(1, 1), // str1[i] == str2[j]
+    SUBSTITUTE(1, 1), // str1[i] replaced by str2[j]
+    INSERT(0, 1), // str2[j] inserted
+    DELETE(1, 0), // str1[i] deleted
+    TRANSPOSE(2, 2); // str1[i] str1[i+1] == str2[j+1] str2[j]
+
+    private final int length1;
+    private final int length2;
+
+    EditOperation(int length1, int length2) {
+        this.length1 = length1;
+        this.length2 = length2;
+    }
+
+    // number of characters of str1 covered by the operation
+    public int getLength1() {
+        return length1;
+    }
+
+    // number of characters of str2 covered by the operation
+    public int getLength2() {
+        return length2;
+    }
+
+    public boolean isEdit() {
+        return this != MATCH;
+    }
+}
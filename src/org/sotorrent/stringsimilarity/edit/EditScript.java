@@ -0,0 +1,45 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Sequence of edit operations that transforms str1 into str2 (see Base.editScript).
+ * The positions of an operation in str1 and str2 follow from the lengths of the preceding operations.
+ */
+public final class EditScript {
+    private final List<EditOperation> operations;
+    private final int distance;
+
+    EditScript(List<EditOperation> operations) {
+        this.operations = Collections.unmodifiableList(operations);
+        int distance = 0;
+        for (EditOperation operation : operations) {
+            if (operation.isEdit()) {
+                distance++;
+            }
+        }
+        this.distance = distance;
+    }
+
+    public List<EditOperation> getOperations() {
+        return operations;
+    }
+
+    /*
+     * Number of operations other than MATCH, the optimal string alignment distance for scripts of Base.editScript().
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    // compact representation, one character per operation (M, S, I, D, T)
+    @Override
+    public String toString() {
+        StringBuilder script = new StringBuilder(operations.size());
+        for (EditOperation operation : operations) {
+            script.append(operation.name().charAt(0));
+        }
+        return script.toString();
+    }
+}
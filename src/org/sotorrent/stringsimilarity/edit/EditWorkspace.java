@@ -0,0 +1,188 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.Arrays;
+
+/*
+ * Scratch memory for the edit-based metrics.
+ *
+ * The kernels in Base, BitParallel, and BandedDP take their pattern masks, encoded texts, bit vectors, and DP rows
+ * from a workspace instead of allocating them per call. The buffers grow on demand and are kept for the next call,
+ * so comparing many pairs of similar size allocates nothing after the first few comparisons.
+ *
+ * A workspace must not be shared between threads. Callers can pass their own workspace or use current(), which
+ * returns a workspace bound to the calling thread. The methods without a workspace parameter use current().
+ * The workspace of a thread does not keep buffers with more than MAX_CACHED_CELLS entries (DP rows: in total), larger
+ * buffers are allocated for the call and dropped afterwards. Otherwise, one comparison of very long inputs would pin
+ * its buffers to the thread, including the threads of the pool that run Hirschberg and Wavefront tasks.
+ * The kernels charge their work to the budget of the workspace (see Budget, BudgetedMetric), if one is set.
+ */
+public final class EditWorkspace {
+    public static final int MAX_CACHED_CELLS = 1 << 20;
+    private static final ThreadLocal<EditWorkspace> CURRENT =
+            ThreadLocal.withInitial(() -> new EditWorkspace(MAX_CACHED_CELLS));
+    private static final int VECTOR_COUNT = 5;
+
+    private final int maxCachedCells; // larger buffers are not kept
+
+    private final PatternMasks patternMasks = new PatternMasks();
+    private final Alphabet alphabet = new Alphabet();
+    private int[] text = new int[0];
+    private int[] symbols = new int[0];
+    private int[] counts = new int[0];
+    private final long[][] vectors = new long[VECTOR_COUNT][0];
+    private int[][] rows = new int[0][];
+    private long rowCells = 0; // total length of the rows
+    private Budget.Meter meter = null;
+
+    // keeps buffers of any size
+    public EditWorkspace() {
+        this(Integer.MAX_VALUE);
+    }
+
+    private EditWorkspace(int maxCachedCells) {
+        this.maxCachedCells = maxCachedCells;
+    }
+
+    public static EditWorkspace current() {
+        return CURRENT.get();
+    }
+
+    PatternMasks patternMasks() {
+        return patternMasks;
+    }
+
+    // cleared alphabet
+    Alphabet alphabet() {
+        alphabet.clear();
+        return alphabet;
+    }
+
+    // number of entries in the buffers that are kept for the next call
+    public long getCachedCells() {
+        long cells = text.length + symbols.length + counts.length + patternMasks.masks().length + rowCells;
+        for (long[] vector : vectors) {
+            cells += vector.length;
+        }
+        return cells;
+    }
+
+    // buffer for encoded texts, content undefined
+    int[] text(int length) {
+        if (length > maxCachedCells) {
+            return new int[length];
+        }
+        if (text.length < length) {
+            text = new int[grow(text.length, length)];
+        }
+        return text;
+    }
+
+    // buffer for symbol slots, content undefined
+    int[] symbols(int length) {
+        if (length > maxCachedCells) {
+            return new int[length];
+        }
+        if (symbols.length < length) {
+            symbols = new int[grow(symbols.length, length)];
+        }
+        return symbols;
+    }
+
+    // buffer for counters, the first length entries are 0
+    int[] counts(int length) {
+        if (length > maxCachedCells) {
+            return new int[length];
+        }
+        if (counts.length < length) {
+            counts = new int[grow(counts.length, length)];
+        } else {
+            Arrays.fill(counts, 0, length, 0);
+        }
+        return counts;
+    }
+
+    // bit vector with the given index (0 <= index < 5), content undefined
+    long[] vector(int index, int words) {
+        if (words > maxCachedCells) {
+            return new long[words];
+        }
+        if (vectors[index].length < words) {
+            vectors[index] = new long[grow(vectors[index].length, words)];
+        }
+        return vectors[index];
+    }
+
+    // at least count DP rows with at least the given length, content undefined; callers may permute the rows
+    int[][] rows(int count, int length) {
+        int[][] rows = rowSlots(count, length);
+        for (int i=0; i<count; i++) {
+            row(rows, i, length);
+        }
+        return rows;
+    }
+
+    /*
+     * At least count slots for DP rows with the given length, the rows are allocated on demand with row(). Callers may
+     * permute the rows. The slots are not kept if count rows would exceed MAX_CACHED_CELLS, the kept rows are dropped
+     * if they exceed it in total (e.g., after several calls with different row counts and lengths).
+     */
+    int[][] rowSlots(int count, int length) {
+        if ((long) count * length > maxCachedCells) {
+            return new int[count][];
+        }
+        if (rowCells > maxCachedCells) {
+            rows = new int[count][];
+            rowCells = 0;
+        } else if (rows.length < count) {
+            rows = Arrays.copyOf(rows, grow(rows.length, count));
+        }
+        return rows;
+    }
+
+    // row in the given slot of rowSlots(), allocated if missing or shorter than length, content undefined
+    int[] row(int[][] rows, int index, int length) {
+        int[] row = rows[index];
+        if (row == null || row.length < length) {
+            int previousLength = row == null ? 0 : row.length;
+            if (rows == this.rows) {
+                row = new int[grow(previousLength, length)];
+                rowCells += row.length - previousLength;
+            } else {
+                row = new int[length];
+            }
+            rows[index] = row;
+        }
+        return row;
+    }
+
+    // drops the pattern masks of the last call if they are not kept (see MAX_CACHED_CELLS)
+    void trim() {
+        patternMasks.trim(maxCachedCells);
+    }
+
+    /*
+     * Run all following comparisons with this workspace under the given budget (null: no budget) until the returned
+     * previous meter is restored with restoreBudget().
+     */
+    Budget.Meter startBudget(Budget budget) {
+        Budget.Meter previous = meter;
+        meter = budget == null ? null : new Budget.Meter(budget);
+        return previous;
+    }
+
+    void restoreBudget(Budget.Meter previous) {
+        meter = previous;
+    }
+
+    // charge the given number of DP cells, throws BudgetExceededException if the budget is exceeded
+    void charge(long cells) {
+        if (meter != null) {
+            meter.charge(cells);
+        }
+    }
+
+    private static int grow(int currentLength, int requiredLength) {
+        // grow by at least 50% to avoid frequent reallocations for slowly growing inputs
+        return Math.max(requiredLength, currentLength + (currentLength >> 1));
+    }
+}
@@ -0,0 +1,288 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Linear-space alignment by Hirschberg that returns an optimal edit script under the optimal string alignment distance
+ * (insertions, deletions, substitutions, and transpositions of adjacent characters, see Base.optimalAlignment()).
+ *
+ * str1 is split in the middle, the last two DP rows of the upper half (forward) and of the lower half (on the reversed
+ * strings) determine where an optimal path crosses the middle row: either through a cell of the middle row, or with a
+ * transposition of the characters before and after it, which jumps from the row before to the row after the middle
+ * row. Both halves (without the transposed characters) are then aligned recursively, the halves are independent and run
+ * in parallel on the wavefront pool (see Wavefront.getPool()) if they have at least PARALLEL_CELLS DP cells. Small
+ * subproblems are aligned with the full DP matrix.
+ * Space in O(min(n,m)) per thread, runtime in O(nm).
+ *
+ * See paper Hirschberg75: "A linear space algorithm for computing maximal common subsequences"
+ */
+final class Hirschberg {
+    static final long PARALLEL_CELLS = 1L << 22;
+    private static final int FULL_MATRIX_CELLS = 4096;
+
+    private Hirschberg() {}
+
+    static EditScript editScript(CharSequence str1, CharSequence str2) {
+        // keep the DP rows short
+        boolean swapped = str2.length() > str1.length();
+        if (swapped) {
+            CharSequence tmp = str1;
+            str1 = str2;
+            str2 = tmp;
+        }
+
+        // common prefix and suffix are matches
+        int prefixLength = Affix.prefixLength(str1, str2);
+        int suffixLength = Affix.suffixLength(str1, str2, prefixLength);
+        Alignment alignment = new Alignment(str1, str2, prefixLength, str1.length() - suffixLength,
+                prefixLength, str2.length() - suffixLength);
+
+        List<EditOperation> operations = new ArrayList<>(str1.length() + str2.length());
+        for (int i=0; i<prefixLength; i++) {
+            operations.add(EditOperation.MATCH);
+        }
+        if ((long) alignment.rows() * alignment.columns() >= PARALLEL_CELLS) {
+            operations.addAll(Wavefront.getPool().invoke(alignment));
+        } else {
+            operations.addAll(alignment.compute());
+        }
+        for (int i=0; i<suffixLength; i++) {
+            operations.add(EditOperation.MATCH);
+        }
+
+        if (swapped) {
+            // script for str2 -> str1 to script for str1 -> str2 (a transposition is symmetric)
+            for (int i=0; i<operations.size(); i++) {
+                if (operations.get(i) == EditOperation.INSERT) {
+                    operations.set(i, EditOperation.DELETE);
+                } else if (operations.get(i) == EditOperation.DELETE) {
+                    operations.set(i, EditOperation.INSERT);
+                }
+            }
+        }
+
+        return new EditScript(operations);
+    }
+
+    private static final class Alignment extends RecursiveTask<List<EditOperation>> {
+        private final CharSequence str1;
+        private final CharSequence str2;
+        private final int from1, to1; // rows
+        private final int from2, to2; // columns
+
+        Alignment(CharSequence str1, CharSequence str2, int from1, int to1, int from2, int to2) {
+            this.str1 = str1;
+            this.str2 = str2;
+            this.from1 = from1;
+            this.to1 = to1;
+            this.from2 = from2;
+            this.to2 = to2;
+        }
+
+        int rows() {
+            return to1 - from1;
+        }
+
+        int columns() {
+            return to2 - from2;
+        }
+
+        @Override
+        protected List<EditOperation> compute() {
+            int n = rows();
+            int m = columns();
+
+            if (n <= 1 || m <= 1 || (long) (n+1) * (m+1) <= FULL_MATRIX_CELLS) {
+                return fullMatrix(str1, str2, from1, to1, from2, to2);
+            }
+
+            int mid = from1 + n / 2;
+            int split = split(mid);
+            int column = from2 + (split >> 1);
+            boolean transposition = (split & 1) == 1;
+
+            Alignment upper;
+            Alignment lower;
+            if (transposition) {
+                // str1[mid-1, mid+1) and str2[column-1, column+1) are transposed
+                upper = new Alignment(str1, str2, from1, mid-1, from2, column-1);
+                lower = new Alignment(str1, str2, mid+1, to1, column+1, to2);
+            } else {
+                upper = new Alignment(str1, str2, from1, mid, from2, column);
+                lower = new Alignment(str1, str2, mid, to1, column, to2);
+            }
+            List<EditOperation> operations;
+            if ((long) n * m >= PARALLEL_CELLS) {
+                ForkJoinTask.invokeAll(upper, lower);
+                operations = upper.join();
+                if (transposition) {
+                    operations.add(EditOperation.TRANSPOSE);
+                }
+                operations.addAll(lower.join());
+            } else {
+                operations = upper.compute();
+                if (transposition) {
+                    operations.add(EditOperation.TRANSPOSE);
+                }
+                operations.addAll(lower.compute());
+            }
+            return operations;
+        }
+
+        /*
+         * Where an optimal path crosses the row mid: 2*k if it passes the cell in column k (relative to from2),
+         * 2*k+1 if it transposes str1[mid-1, mid+1) and the characters of the columns k-1 and k.
+         */
+        private int split(int mid) {
+            int m = columns();
+            // rows of the thread that runs this task, released before the recursion
+            int[][] rows = EditWorkspace.current().rows(6, m+1);
+            lastRows(str1, str2, from1, mid, from2, to2, rows, 0, false);
+            lastRows(str1, str2, mid, to1, from2, to2, rows, 3, true);
+            int[] forward = rows[0]; // str1[from1, mid) and str2[from2, from2+k)
+            int[] forwardBefore = rows[1]; // str1[from1, mid-1) and str2[from2, from2+k)
+            int[] reverse = rows[3]; // reverse[m-k]: str1[mid, to1) and str2[from2+k, to2)
+            int[] reverseAfter = rows[4]; // reverseAfter[m-k]: str1[mid+1, to1) and str2[from2+k, to2)
+
+            int split = 0;
+            int minDist = Integer.MAX_VALUE;
+            for (int k=0; k<m+1; k++) {
+                int dist = forward[k] + reverse[m-k];
+                if (dist < minDist) {
+                    minDist = dist;
+                    split = 2 * k;
+                }
+                if (k > 0 && k < m
+                        && str1.charAt(mid-1) == str2.charAt(from2+k) && str1.charAt(mid) == str2.charAt(from2+k-1)) {
+                    dist = forwardBefore[k-1] + 1 + reverseAfter[m-k-1];
+                    if (dist < minDist) {
+                        minDist = dist;
+                        split = 2 * k + 1;
+                    }
+                }
+            }
+            return split;
+        }
+    }
+
+    /*
+     * Last two rows of the optimal string alignment DP matrix of str1[from1, to1) and str2[from2, to2), on the
+     * reversed strings if reverse is set. Uses the three rows rows[offset, offset+3) and permutes them, such that
+     * rows[offset] is the last row and rows[offset+1] the row before it (without the last character of str1, or
+     * without the first one if reverse is set).
+     */
+    private static void lastRows(CharSequence str1, CharSequence str2, int from1, int to1, int from2, int to2,
+                                 int[][] rows, int offset, boolean reverse) {
+        int n = to1 - from1;
+        int m = to2 - from2;
+        int[] currentRow = rows[offset];
+        int[] previousRow = rows[offset+1];
+        int[] rowBeforePrevious = rows[offset+2];
+
+        for (int j=0; j<m+1; j++) {
+            previousRow[j] = j;
+        }
+
+        char previousC1 = 0;
+        for (int i=1; i<n+1; i++) {
+            char c1 = reverse ? str1.charAt(to1 - i) : str1.charAt(from1 + i - 1);
+            currentRow[0] = i;
+            char previousC2 = 0;
+            for (int j=1; j<m+1; j++) {
+                char c2 = reverse ? str2.charAt(to2 - j) : str2.charAt(from2 + j - 1);
+                int value = Math.min(Math.min(
+                        previousRow[j-1] + (c1 == c2 ? 0 : 1), // substitution
+                        previousRow[j] + 1), // deletion
+                        currentRow[j-1] + 1 // insertion
+                );
+                if (i > 1 && j > 1 && c1 == previousC2 && previousC1 == c2) {
+                    value = Math.min(value, rowBeforePrevious[j-2] + 1); // transposition
+                }
+                currentRow[j] = value;
+                previousC2 = c2;
+            }
+            previousC1 = c1;
+            int[] tmp = rowBeforePrevious;
+            rowBeforePrevious = previousRow;
+            previousRow = currentRow;
+            currentRow = tmp;
+        }
+
+        rows[offset] = previousRow;
+        rows[offset+1] = rowBeforePrevious;
+        rows[offset+2] = currentRow;
+    }
+
+    // alignment with traceback through the full DP matrix (only for small subproblems)
+    private static List<EditOperation> fullMatrix(CharSequence str1, CharSequence str2,
+                                                  int from1, int to1, int from2, int to2) {
+        int n = to1 - from1;
+        int m = to2 - from2;
+        int[][] dist = new int[n+1][m+1];
+
+        for (int i=0; i<n+1; i++) {
+            dist[i][0] = i;
+        }
+        for (int j=0; j<m+1; j++) {
+            dist[0][j] = j;
+        }
+        for (int i=1; i<n+1; i++) {
+            for (int j=1; j<m+1; j++) {
+                dist[i][j] = Math.min(Math.min(
+                        dist[i-1][j-1] + (str1.charAt(from1+i-1) == str2.charAt(from2+j-1) ? 0 : 1),
+                        dist[i-1][j] + 1),
+                        dist[i][j-1] + 1
+                );
+                if (transposed(str1, str2, from1+i, from2+j, i, j)) {
+                    dist[i][j] = Math.min(dist[i][j], dist[i-2][j-2] + 1);
+                }
+            }
+        }
+
+        // traceback, prefers diagonal steps and transpositions
+        List<EditOperation> operations = new ArrayList<>(n + m);
+        int i = n;
+        int j = m;
+        while (i > 0 || j > 0) {
+            if (i > 0 && j > 0) {
+                boolean match = str1.charAt(from1+i-1) == str2.charAt(from2+j-1);
+                if (dist[i][j] == dist[i-1][j-1] + (match ? 0 : 1)) {
+                    operations.add(match ? EditOperation.MATCH : EditOperation.SUBSTITUTE);
+                    i--;
+                    j--;
+                    continue;
+                }
+                if (transposed(str1, str2, from1+i, from2+j, i, j) && dist[i][j] == dist[i-2][j-2] + 1) {
+                    operations.add(EditOperation.TRANSPOSE);
+                    i -= 2;
+                    j -= 2;
+                    continue;
+                }
+            }
+            if (i > 0 && dist[i][j] == dist[i-1][j] + 1) {
+                operations.add(EditOperation.DELETE);
+                i--;
+            } else {
+                operations.add(EditOperation.INSERT);
+                j--;
+            }
+        }
+
+        // traceback runs from the end
+        for (int left=0, right=operations.size()-1; left<right; left++, right--) {
+            EditOperation tmp = operations.get(left);
+            operations.set(left, operations.get(right));
+            operations.set(right, tmp);
+        }
+        return operations;
+    }
+
+    // str1[end1-2, end1) and str2[end2-2, end2) are transposed (i and j: lengths of the aligned prefixes)
+    private static boolean transposed(CharSequence str1, CharSequence str2, int end1, int end2, int i, int j) {
+        return i > 1 && j > 1
+                && str1.charAt(end1-1) == str2.charAt(end2-2) && str1.charAt(end1-2) == str2.charAt(end2-1);
+    }
+}
@@ -0,0 +1,74 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.List;
+
+/*
+ * Levenshtein distances of one query string to many candidates.
+ *
+ * The pattern masks of the query are built once in prepare() and reused for every candidate, only the candidate is
+ * encoded per comparison (see BitParallel.levenshteinDistance). Candidates whose length differs from the query by
+ * more than maxDist are skipped without running the kernel.
+ * A prepared query is immutable and can be shared between threads, the scratch memory comes from the workspace.
+ */
+public final class LevenshteinQuery {
+    private final String query;
+    private final PatternMasks pattern;
+
+    private LevenshteinQuery(String query) {
+        this.query = query;
+        this.pattern = PatternMasks.of(query);
+    }
+
+    public static LevenshteinQuery prepare(String query) {
+        return new LevenshteinQuery(query);
+    }
+
+    public String query() {
+        return query;
+    }
+
+    public int distance(String candidate) {
+        return distance(candidate, Integer.MAX_VALUE, EditWorkspace.current());
+    }
+
+    /*
+     * Threshold-bounded Levenshtein distance between query and candidate.
+     * Returns maxDist+1 if the distance is greater than maxDist.
+     */
+    public int distance(String candidate, int maxDist) {
+        return distance(candidate, maxDist, EditWorkspace.current());
+    }
+
+    public int distance(String candidate, int maxDist, EditWorkspace workspace) {
+        if (maxDist < 0) {
+            throw new IllegalArgumentException("Maximum distance must not be negative.");
+        }
+
+        if (Math.abs(query.length() - candidate.length()) > maxDist) {
+            return maxDist + 1; // length difference alone exceeds the bound
+        } else if (query.equals(candidate)) {
+            return 0;
+        }
+
+        int[] text = workspace.text(candidate.length());
+        pattern.encode(candidate, 0, candidate.length(), text);
+        return BitParallel.levenshteinDistance(pattern, text, candidate.length(), maxDist, workspace);
+    }
+
+    /*
+     * Threshold-bounded Levenshtein distances between query and all candidates (in the order of the list).
+     * Returns maxDist+1 for candidates with a distance greater than maxDist.
+     */
+    public int[] distances(List<String> candidates, int maxDist) {
+        return distances(candidates, maxDist, EditWorkspace.current());
+    }
+
+    public int[] distances(List<String> candidates, int maxDist, EditWorkspace workspace) {
+        int[] distances = new int[candidates.size()];
+        int i = 0;
+        for (String candidate : candidates) {
+            distances[i++] = distance(candidate, maxDist, workspace);
+        }
+        return distances;
+    }
+}
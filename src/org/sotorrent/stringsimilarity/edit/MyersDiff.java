@@ -0,0 +1,83 @@
+package org.sotorrent.stringsimilarity.edit;
+
+/*
+ * Insert/delete distance (number of differences D) based on the greedy O((n+m)*D) algorithm by Myers.
+ *
+ * For each D, the furthest reaching path on every diagonal k = x-y is extended along matching symbols ("snakes").
+ * The runtime depends on the number of differences instead of the product of the lengths, which makes this the
+ * fastest engine for long and nearly identical inputs. The LCS length follows from (n+m-D)/2.
+ * All methods compare seq1[offset, offset+n) with seq2[offset, offset+m) and return maxD+1 if D is greater than maxD.
+ *
+ * See paper Myers86: "An O(ND) difference algorithm and its variations"
+ */
+final class MyersDiff {
+    private MyersDiff() {}
+
+    static int insertDeleteDistance(CharSequence str1, CharSequence str2, int offset, int n, int m, int maxD,
+                                    EditWorkspace workspace) {
+        maxD = Math.min(maxD, n + m);
+        if (Math.abs(n - m) > maxD) {
+            return maxD + 1; // every path needs at least |n-m| differences
+        }
+
+        int center = maxD + 1; // diagonal k is stored at index center + k
+        int[] furthestX = workspace.counts(2 * maxD + 3);
+
+        for (int d=0; d<=maxD; d++) {
+            workspace.charge(d + 1); // one diagonal per k, the snakes are not counted
+            for (int k=-d; k<=d; k+=2) {
+                int x;
+                if (k == -d || (k != d && furthestX[center+k-1] < furthestX[center+k+1])) {
+                    x = furthestX[center+k+1]; // insertion (down)
+                } else {
+                    x = furthestX[center+k-1] + 1; // deletion (right)
+                }
+                int y = x - k;
+                while (x < n && y < m && str1.charAt(offset + x) == str2.charAt(offset + y)) {
+                    x++;
+                    y++;
+                }
+                furthestX[center+k] = x;
+                if (x >= n && y >= m) {
+                    return d;
+                }
+            }
+        }
+
+        return maxD + 1;
+    }
+
+    static int insertDeleteDistance(int[] tokens1, int[] tokens2, int offset, int n, int m, int maxD,
+                                    EditWorkspace workspace) {
+        maxD = Math.min(maxD, n + m);
+        if (Math.abs(n - m) > maxD) {
+            return maxD + 1;
+        }
+
+        int center = maxD + 1;
+        int[] furthestX = workspace.counts(2 * maxD + 3);
+
+        for (int d=0; d<=maxD; d++) {
+            workspace.charge(d + 1); // one diagonal per k, the snakes are not counted
+            for (int k=-d; k<=d; k+=2) {
+                int x;
+                if (k == -d || (k != d && furthestX[center+k-1] < furthestX[center+k+1])) {
+                    x = furthestX[center+k+1];
+                } else {
+                    x = furthestX[center+k-1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && tokens1[offset + x] == tokens2[offset + y]) {
+                    x++;
+                    y++;
+                }
+                furthestX[center+k] = x;
+                if (x >= n && y >= m) {
+                    return d;
+                }
+            }
+        }
+
+        return maxD + 1;
+    }
+}
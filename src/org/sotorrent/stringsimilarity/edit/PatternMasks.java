@@ -0,0 +1,103 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.Arrays;
+
+/*
+ * Match bit vectors of a pattern for the bit-parallel edit metrics.
+ *
+ * Bit i of word w of the mask for symbol c is set iff pattern[64*w + i] == c.
+ * The masks are stored slot by slot (see Alphabet), slot 0 (symbols not in the pattern) has only zero bits.
+ * Texts are encoded into slot arrays once, which keeps the symbol lookup out of the kernels.
+ */
+final class PatternMasks {
+    static final int WORD_SIZE = 64;
+
+    private final Alphabet alphabet = new Alphabet();
+    private long[] masks = new long[0];
+    private int length = 0;
+    private int words = 0;
+
+    static PatternMasks of(CharSequence pattern) {
+        PatternMasks patternMasks = new PatternMasks();
+        patternMasks.reset(pattern, 0, pattern.length());
+        return patternMasks;
+    }
+
+    static PatternMasks of(int[] pattern) {
+        PatternMasks patternMasks = new PatternMasks();
+        patternMasks.reset(pattern, 0, pattern.length);
+        return patternMasks;
+    }
+
+    // rebuilds the masks for pattern[offset, offset+length), reusing the existing arrays
+    void reset(CharSequence pattern, int offset, int length) {
+        alphabet.clear();
+        for (int i=0; i<length; i++) {
+            alphabet.add(pattern.charAt(offset + i));
+        }
+        init(length);
+        for (int i=0; i<length; i++) {
+            set(i, pattern.charAt(offset + i));
+        }
+    }
+
+    void reset(int[] pattern, int offset, int length) {
+        alphabet.clear();
+        for (int i=0; i<length; i++) {
+            alphabet.add(pattern[offset + i]);
+        }
+        init(length);
+        for (int i=0; i<length; i++) {
+            set(i, pattern[offset + i]);
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    int words() {
+        return words;
+    }
+
+    long[] masks() {
+        return masks;
+    }
+
+    // drops the masks if they have more than maxLength entries
+    void trim(int maxLength) {
+        if (masks.length > maxLength) {
+            masks = new long[0];
+        }
+    }
+
+    // writes the slots of text[offset, offset+length) to slots[0, length)
+    void encode(CharSequence text, int offset, int length, int[] slots) {
+        for (int i=0; i<length; i++) {
+            slots[i] = alphabet.slotOf(text.charAt(offset + i));
+        }
+    }
+
+    void encode(int[] text, int offset, int length, int[] slots) {
+        for (int i=0; i<length; i++) {
+            slots[i] = alphabet.slotOf(text[offset + i]);
+        }
+    }
+
+    // expects that the alphabet already contains all pattern symbols
+    private void init(int patternLength) {
+        length = patternLength;
+        words = (patternLength + WORD_SIZE - 1) / WORD_SIZE;
+        int required = (alphabet.size() + 1) * words; // slot 0 plus one slot per distinct symbol
+        if (masks.length < required) {
+            masks = new long[required];
+        } else {
+            Arrays.fill(masks, 0, required, 0L);
+        }
+    }
+
+    private void set(int pos, int symbol) {
+        int slot = alphabet.slotOf(symbol);
+        masks[slot * words + pos / WORD_SIZE] |= 1L << (pos % WORD_SIZE);
+    }
+}
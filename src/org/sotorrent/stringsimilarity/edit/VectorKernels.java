@@ -0,0 +1,25 @@
+package org.sotorrent.stringsimilarity.edit;
+
+/*
+ * Entry point for the SIMD variants of the blocked bit-parallel kernels.
+ *
+ * The Vector API (jdk.incubator.vector) is not available on Java 11, so this version never supports a pattern and
+ * BitParallel always uses its scalar kernels. The multi-release JAR contains a Java 17 version of this class (see
+ * src-java17) that delegates to VectorizedBitParallel if the module jdk.incubator.vector is present at runtime.
+ * The kernels below are never selected, they delegate to the scalar blocked kernels so that they stay correct.
+ */
+final class VectorKernels {
+    private VectorKernels() {}
+
+    static boolean supports(int words) {
+        return false;
+    }
+
+    static int levenshteinDistance(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        return BitParallel.levenshteinDistanceBlocked(pattern, text, textLength, Integer.MAX_VALUE, workspace);
+    }
+
+    static int longestCommonSubsequenceLength(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        return BitParallel.longestCommonSubsequenceLengthBlocked(pattern, text, textLength, workspace);
+    }
+}
@@ -0,0 +1,191 @@
+package org.sotorrent.stringsimilarity.edit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Parallel tiled wavefront for the blocked bit-parallel kernels (Levenshtein and LCS, see BitParallel).
+ *
+ * The DP matrix is split into tiles of ROW_BLOCK_WORDS pattern words times COLUMN_BLOCK text symbols. A tile depends
+ * on its left neighbour (bit vectors of its words) and on its upper neighbour (carries leaving the last word of the
+ * upper row block, one per text position). The tiles on an anti-diagonal are therefore independent and are processed
+ * in parallel on a ForkJoinPool, one anti-diagonal after the other.
+ * The wavefront is only used if the number of DP cells reaches the threshold (see setThreshold()), smaller inputs are
+ * faster on a single thread.
+ */
+public final class Wavefront {
+    public static final long DEFAULT_THRESHOLD = 1L << 30; // DP cells
+    static final int ROW_BLOCK_WORDS = 32;
+    static final int COLUMN_BLOCK = 8192;
+
+    private static volatile long threshold = Long.getLong(
+            "org.sotorrent.stringsimilarity.edit.wavefrontThreshold", DEFAULT_THRESHOLD);
+    private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    private Wavefront() {}
+
+    public static long getThreshold() {
+        return threshold;
+    }
+
+    // minimum number of DP cells (pattern length times text length) for which the parallel wavefront is used
+    public static void setThreshold(long cells) {
+        if (cells < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative.");
+        }
+        threshold = cells;
+    }
+
+    public static ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public static void setPool(ForkJoinPool forkJoinPool) {
+        if (forkJoinPool == null) {
+            throw new IllegalArgumentException("Pool must not be null.");
+        }
+        pool = forkJoinPool;
+    }
+
+    // the wavefront needs at least two row blocks or two column blocks to run anything in parallel
+    static boolean applies(PatternMasks pattern, int textLength) {
+        return (long) pattern.length() * textLength >= threshold
+                && (pattern.words() > ROW_BLOCK_WORDS || textLength > COLUMN_BLOCK);
+    }
+
+    static int levenshteinDistance(PatternMasks pattern, int[] text, int textLength, EditWorkspace workspace) {
+        int words = pattern.words();
+        long[] vp = workspace.vector(0, words);
+        long[] vn = workspace.vector(1, words);
+        long[] hpCarry = workspace.vector(2, textLength); // horizontal deltas leaving the last word of a row block
+        long[] hnCarry = workspace.vector(3, textLength);
+        Arrays.fill(vp, 0, words, ~0L);
+        Arrays.fill(vn, 0, words, 0L);
+        Arrays.fill(hpCarry, 0, textLength, 1L); // first row: D[0][j] = j
+        Arrays.fill(hnCarry, 0, textLength, 0L);
+
+        run(words, textLength, workspace, (wordFrom, wordTo, columnFrom, columnTo) -> {
+            long[] masks = pattern.masks();
+            for (int j=columnFrom; j<columnTo; j++) {
+                int offset = text[j] * words;
+                long hpIn = hpCarry[j];
+                long hnIn = hnCarry[j];
+
+                for (int word=wordFrom; word<wordTo; word++) {
+                    long pm = masks[offset + word];
+                    long vpWord = vp[word];
+                    long vnWord = vn[word];
+
+                    long x = pm | hnIn;
+                    long d0 = (((x & vpWord) + vpWord) ^ vpWord) | x | vnWord;
+                    long hp = vnWord | ~(d0 | vpWord);
+                    long hn = d0 & vpWord;
+
+                    long hpOut = hp >>> 63;
+                    long hnOut = hn >>> 63;
+                    hp = (hp << 1) | hpIn;
+                    hn = (hn << 1) | hnIn;
+                    hpIn = hpOut;
+                    hnIn = hnOut;
+
+                    vp[word] = hn | ~(d0 | hp);
+                    vn[word] = hp & d0;
+                }
+
+                hpCarry[j] = hpIn;
+                hnCarry[j] = hnIn;
+            }
+        });
+
+        // D[m][n] = D[0][n] + sum of the vertical deltas in the last column
+        int dist = textLength;
+        for (int word=0; word<words; word++) {
+            long valid = validBits(pattern, word);
+            dist += Long.bitCount(vp[word] & valid) - Long.bitCount(vn[word] & valid);
+        }
+        return dist;
+    }
+
+    static int longestCommonSubsequenceLength(PatternMasks pattern, int[] text, int textLength,
+                                              EditWorkspace workspace) {
+        int words = pattern.words();
+        long[] s = workspace.vector(0, words);
+        long[] carry = workspace.vector(1, textLength); // carry of the addition leaving the last word of a row block
+        Arrays.fill(s, 0, words, ~0L);
+        Arrays.fill(carry, 0, textLength, 0L);
+
+        run(words, textLength, workspace, (wordFrom, wordTo, columnFrom, columnTo) -> {
+            long[] masks = pattern.masks();
+            for (int j=columnFrom; j<columnTo; j++) {
+                int offset = text[j] * words;
+                long carryIn = carry[j];
+
+                for (int word=wordFrom; word<wordTo; word++) {
+                    long sWord = s[word];
+                    long u = sWord & masks[offset + word];
+                    long withCarry = sWord + carryIn;
+                    long sum = withCarry + u;
+                    carryIn = (Long.compareUnsigned(withCarry, carryIn) < 0 || Long.compareUnsigned(sum, u) < 0) ? 1L : 0L;
+                    s[word] = sum | (sWord - u);
+                }
+
+                carry[j] = carryIn;
+            }
+        });
+
+        int length = 0;
+        for (int word=0; word<words; word++) {
+            length += Long.bitCount(~s[word] & validBits(pattern, word));
+        }
+        return length;
+    }
+
+    private interface Tile {
+        void compute(int wordFrom, int wordTo, int columnFrom, int columnTo);
+    }
+
+    /*
+     * Process all tiles anti-diagonal by anti-diagonal, the tiles of one anti-diagonal in parallel.
+     * The cells of an anti-diagonal are charged to the budget of the workspace before its tiles are started.
+     */
+    private static void run(int words, int textLength, EditWorkspace workspace, Tile tile) {
+        int rowBlocks = (words + ROW_BLOCK_WORDS - 1) / ROW_BLOCK_WORDS;
+        int columnBlocks = (textLength + COLUMN_BLOCK - 1) / COLUMN_BLOCK;
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tiles = new ArrayList<>();
+                for (int diagonal=0; diagonal<rowBlocks+columnBlocks-1; diagonal++) {
+                    tiles.clear();
+                    long cells = 0;
+                    for (int row=Math.max(0, diagonal-columnBlocks+1); row<=Math.min(rowBlocks-1, diagonal); row++) {
+                        int wordFrom = row * ROW_BLOCK_WORDS;
+                        int wordTo = Math.min(words, wordFrom + ROW_BLOCK_WORDS);
+                        int columnFrom = (diagonal - row) * COLUMN_BLOCK;
+                        int columnTo = Math.min(textLength, columnFrom + COLUMN_BLOCK);
+                        cells += (long) (wordTo - wordFrom) * PatternMasks.WORD_SIZE * (columnTo - columnFrom);
+                        tiles.add(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                tile.compute(wordFrom, wordTo, columnFrom, columnTo);
+                            }
+                        });
+                    }
+                    workspace.charge(cells); // only this task accesses the workspace budget
+                    ForkJoinTask.invokeAll(tiles);
+                }
+            }
+        });
+    }
+
+    // bits of the word that belong to the pattern
+    private static long validBits(PatternMasks pattern, int word) {
+        int count = Math.min(PatternMasks.WORD_SIZE, pattern.length() - word * PatternMasks.WORD_SIZE);
+        return count == PatternMasks.WORD_SIZE ? ~0L : (1L << count) - 1;
+    }
+}
@@ -0,0 +1,251 @@
+package org.sotorrent.stringsimilarity.fingerprint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.sotorrent.stringsimilarity.Tokenization.nGramView;
+
+/*
+ * Seed-and-extend alignment of large strings anchored on matching winnowing fingerprints.
+ *
+ * 1. Seeds: fingerprint hashes that are selected exactly once in both strings and whose nGrams are equal.
+ * 2. Chain: longest chain of seeds that is increasing in both strings (longest increasing subsequence), seeds on the
+ *    same diagonal are merged, seeds that overlap the previous anchor are dropped.
+ * 3. Extend: anchors are extended character by character into the gaps to their neighbours.
+ * 4. Gaps: the exact edit metrics (see edit.Base) only run on the gaps between anchors.
+ *
+ * The Levenshtein distance is an upper bound and the LCS length a lower bound of the exact values, both are exact if
+ * the optimal alignment contains all anchors. The coverage reports which share of each string is part of an anchor.
+ * If a string is too short for a fingerprint, the whole strings are compared exactly.
+ */
+public final class AnchoredAlignment {
+    private final int length1;
+    private final int length2;
+    private final int anchorCount;
+    private final int anchoredLength; // characters per string that are part of an anchor
+    private final int levenshteinDistance;
+    private final int longestCommonSubsequenceLength;
+
+    private AnchoredAlignment(int length1, int length2, int anchorCount, int anchoredLength,
+                              int levenshteinDistance, int longestCommonSubsequenceLength) {
+        this.length1 = length1;
+        this.length2 = length2;
+        this.anchorCount = anchorCount;
+        this.anchoredLength = anchoredLength;
+        this.levenshteinDistance = levenshteinDistance;
+        this.longestCommonSubsequenceLength = longestCommonSubsequenceLength;
+    }
+
+    public static AnchoredAlignment align(String str1, String str2, int nGramSize) {
+        List<int[]> anchors = anchors(str1, str2, nGramSize); // {start1, start2, length}
+
+        int levenshteinDistance = 0;
+        int longestCommonSubsequenceLength = 0;
+        int anchoredLength = 0;
+        int end1 = 0;
+        int end2 = 0;
+        for (int[] anchor : anchors) {
+            int[] gapDistances = gapDistances(str1.substring(end1, anchor[0]), str2.substring(end2, anchor[1]));
+            levenshteinDistance += gapDistances[0];
+            longestCommonSubsequenceLength += gapDistances[1] + anchor[2];
+            anchoredLength += anchor[2];
+            end1 = anchor[0] + anchor[2];
+            end2 = anchor[1] + anchor[2];
+        }
+        int[] gapDistances = gapDistances(str1.substring(end1), str2.substring(end2));
+        levenshteinDistance += gapDistances[0];
+        longestCommonSubsequenceLength += gapDistances[1];
+
+        return new AnchoredAlignment(str1.length(), str2.length(), anchors.size(), anchoredLength,
+                levenshteinDistance, longestCommonSubsequenceLength);
+    }
+
+    // {Levenshtein distance, LCS length} of the gaps before an anchor (exact edit metrics, see edit.Base)
+    private static int[] gapDistances(String gap1, String gap2) {
+        return new int[]{
+                org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance(gap1, gap2),
+                org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequenceLength(gap1, gap2)
+        };
+    }
+
+    // non-overlapping anchors {start1, start2, length} in increasing order
+    private static List<int[]> anchors(String str1, String str2, int nGramSize) {
+        int windowSize = Base.getWindowSize(nGramSize);
+        if (Math.min(str1.length(), str2.length()) < nGramSize + windowSize - 1) {
+            return new ArrayList<>(); // too short for a fingerprint
+        }
+
+        Fingerprint fingerprint1 = Base.fingerprint(nGramView(str1, nGramSize), windowSize);
+        Fingerprint fingerprint2 = Base.fingerprint(nGramView(str2, nGramSize), windowSize);
+
+        // seeds: hashes selected exactly once in both fingerprints, sorted by position in str1
+        long[] uniquePositions1 = uniquePositions(fingerprint1);
+        long[] uniquePositions2 = uniquePositions(fingerprint2);
+        long[] seedPositions = new long[Math.min(uniquePositions1.length, uniquePositions2.length)];
+        int seedCount = 0;
+        int i = 0;
+        int j = 0;
+        while (i < uniquePositions1.length && j < uniquePositions2.length) {
+            int hash1 = high(uniquePositions1[i]);
+            int hash2 = high(uniquePositions2[j]);
+            if (hash1 < hash2) {
+                i++;
+            } else if (hash1 > hash2) {
+                j++;
+            } else {
+                int position1 = low(uniquePositions1[i++]);
+                int position2 = low(uniquePositions2[j++]);
+                if (str1.regionMatches(position1, str2, position2, nGramSize)) { // hash collisions
+                    seedPositions[seedCount++] = pack(position1, position2);
+                }
+            }
+        }
+        Arrays.sort(seedPositions, 0, seedCount);
+        List<int[]> seeds = new ArrayList<>(seedCount);
+        for (int k=0; k<seedCount; k++) {
+            seeds.add(new int[]{high(seedPositions[k]), low(seedPositions[k])});
+        }
+
+        List<int[]> anchors = new ArrayList<>();
+        for (int[] seed : longestIncreasingChain(seeds)) {
+            int[] previous = anchors.isEmpty() ? null : anchors.get(anchors.size()-1);
+            if (previous != null && seed[0] - previous[0] == seed[1] - previous[1]
+                    && seed[0] <= previous[0] + previous[2]) {
+                // same diagonal, overlapping or adjacent -> merge
+                previous[2] = Math.max(previous[2], seed[0] + nGramSize - previous[0]);
+            } else if (previous == null
+                    || (seed[0] >= previous[0] + previous[2] && seed[1] >= previous[1] + previous[2])) {
+                anchors.add(new int[]{seed[0], seed[1], nGramSize});
+            }
+        }
+
+        extend(anchors, str1, str2);
+        return anchors;
+    }
+
+    // (hash, position) pairs of the hashes that are selected exactly once, sorted by hash (see pack())
+    private static long[] uniquePositions(Fingerprint fingerprint) {
+        long[] pairs = new long[fingerprint.size()];
+        for (int i=0; i<pairs.length; i++) {
+            pairs[i] = pack(fingerprint.getHashes()[i], fingerprint.getPositions()[i]);
+        }
+        Arrays.sort(pairs);
+
+        int count = 0;
+        for (int i=0, end; i<pairs.length; i=end) {
+            end = i + 1;
+            while (end < pairs.length && high(pairs[end]) == high(pairs[i])) {
+                end++;
+            }
+            if (end == i + 1) {
+                pairs[count++] = pairs[i];
+            }
+        }
+        return Arrays.copyOf(pairs, count);
+    }
+
+    // two ints in one long that sorts by high first (signed), then by low (non-negative)
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | low;
+    }
+
+    private static int high(long pair) {
+        return (int) (pair >> 32);
+    }
+
+    private static int low(long pair) {
+        return (int) pair;
+    }
+
+    // longest subsequence of the seeds (sorted by position in str1) with increasing positions in str2
+    private static List<int[]> longestIncreasingChain(List<int[]> seeds) {
+        int[] tails = new int[seeds.size()]; // index of the seed that ends the best chain of each length
+        int[] predecessors = new int[seeds.size()];
+        int length = 0;
+
+        for (int i=0; i<seeds.size(); i++) {
+            int position2 = seeds.get(i)[1];
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (seeds.get(tails[mid])[1] < position2) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            predecessors[i] = low > 0 ? tails[low-1] : -1;
+            tails[low] = i;
+            length = Math.max(length, low + 1);
+        }
+
+        int[][] chain = new int[length][];
+        for (int i = length > 0 ? tails[length-1] : -1, pos = length-1; i >= 0; i = predecessors[i], pos--) {
+            chain[pos] = seeds.get(i);
+        }
+        return Arrays.asList(chain);
+    }
+
+    // extend the anchors with matching characters to the left and to the right (up to the neighbouring anchors)
+    private static void extend(List<int[]> anchors, String str1, String str2) {
+        for (int i=0; i<anchors.size(); i++) {
+            int[] anchor = anchors.get(i);
+            int limit1 = i > 0 ? anchors.get(i-1)[0] + anchors.get(i-1)[2] : 0;
+            int limit2 = i > 0 ? anchors.get(i-1)[1] + anchors.get(i-1)[2] : 0;
+            while (anchor[0] > limit1 && anchor[1] > limit2 && str1.charAt(anchor[0]-1) == str2.charAt(anchor[1]-1)) {
+                anchor[0]--;
+                anchor[1]--;
+                anchor[2]++;
+            }
+
+            limit1 = i < anchors.size()-1 ? anchors.get(i+1)[0] : str1.length();
+            limit2 = i < anchors.size()-1 ? anchors.get(i+1)[1] : str2.length();
+            while (anchor[0] + anchor[2] < limit1 && anchor[1] + anchor[2] < limit2
+                    && str1.charAt(anchor[0] + anchor[2]) == str2.charAt(anchor[1] + anchor[2])) {
+                anchor[2]++;
+            }
+        }
+    }
+
+    public int getAnchorCount() {
+        return anchorCount;
+    }
+
+    // share of str1 that is part of an anchor
+    public double getCoverage1() {
+        return length1 == 0 ? 0.0 : (double) anchoredLength / length1;
+    }
+
+    // share of str2 that is part of an anchor
+    public double getCoverage2() {
+        return length2 == 0 ? 0.0 : (double) anchoredLength / length2;
+    }
+
+    // upper bound of the Levenshtein distance
+    public int getLevenshteinDistance() {
+        return levenshteinDistance;
+    }
+
+    // lower bound of the LCS length
+    public int getLongestCommonSubsequenceLength() {
+        return longestCommonSubsequenceLength;
+    }
+
+    public double getLevenshteinSimilarity() {
+        int maxLength = Math.max(length1, length2);
+        if (maxLength == 0) {
+            return 1.0; // empty strings have similarity 1.0
+        }
+        return (double) (maxLength - levenshteinDistance) / maxLength;
+    }
+
+    public double getLongestCommonSubsequenceSimilarity() {
+        int maxLength = Math.max(length1, length2);
+        if (maxLength == 0) {
+            return 1.0; // empty strings have similarity 1.0
+        }
+        return (double) longestCommonSubsequenceLength / maxLength;
+    }
+}
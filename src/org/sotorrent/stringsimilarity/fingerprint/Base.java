@@ -1,14 +1,17 @@
 package org.sotorrent.stringsimilarity.fingerprint;
 
+import org.sotorrent.stringsimilarity.NGramView;
 import org.sotorrent.util.exceptions.InputTooShortException;
 
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.sotorrent.stringsimilarity.Normalization.normalizeForNGram;
-import static org.sotorrent.stringsimilarity.Tokenization.nGramList;
+import static org.sotorrent.stringsimilarity.Tokenization.nGramView;
 
 /*
  * Fingerprint-based similarity metrics.
@@ -25,21 +28,35 @@ public class Base {
     /**
      * Retrieve the fingerprint of a list of nGrams as defined in the Winnowing algorithm presented in Schleimer03.
      *
-     * @param nGrams List of nGrams
+     * @param nGrams View of the nGrams
      * @param windowSize Winnowing window size
-     * @return Fingerprint of nGrams (list of selected hash values)
+     * @return Fingerprint of nGrams (selected hash values in order of their positions)
      */
-    private static List<Integer> fingerprintList(List<String> nGrams, int windowSize) {
-        // TODO: Also return positions of selected hashes? (see Schleimer03)
+    private static int[] fingerprintList(NGramView nGrams, int windowSize) {
+        return fingerprint(nGrams, windowSize).getHashes();
+    }
 
-        Integer[] nGramHashes = getNGramHashes(nGrams);
-        List<Integer> fingerprintList = new LinkedList<>();
+    /**
+     * Retrieve the fingerprint of a list of nGrams together with the positions of the selected hashes (see Schleimer03,
+     * "the positions of the fingerprints are recorded as well").
+     *
+     * @param nGrams View of the nGrams
+     * @param windowSize Winnowing window size
+     * @return Fingerprint of nGrams (selected hash values and the indices of their nGrams)
+     */
+    static Fingerprint fingerprint(NGramView nGrams, int windowSize) {
+        int[] nGramHashes = getNGramHashes(nGrams);
         int minHashPos = -1; // index of minimum hash
 
         if (windowSize > nGramHashes.length) {
             throw new InputTooShortException("Window size too large for nGram list.");
         }
 
+        // at most one hash is selected per window
+        int[] fingerprintList = new int[nGramHashes.length-windowSize+1];
+        int[] positions = new int[nGramHashes.length-windowSize+1];
+        int fingerprintLength = 0;
+
         for (int windowBegin = 0; windowBegin <= nGramHashes.length-windowSize; windowBegin++) {
             int windowEnd = windowBegin+windowSize-1; // index of last hash in window
 
@@ -51,24 +68,35 @@ public class Base {
                         minHashPos = currentPos;
                     }
                 }
-                fingerprintList.add(nGramHashes[minHashPos]);
+                positions[fingerprintLength] = minHashPos;
+                fingerprintList[fingerprintLength++] = nGramHashes[minHashPos];
             } else {
                 // previous minimum is still in window -> compare new (rightmost) hash value in window with minHash
                 if (nGramHashes[windowEnd] < nGramHashes[minHashPos]) {
                     minHashPos = windowEnd;
-                    fingerprintList.add(nGramHashes[minHashPos]);
+                    positions[fingerprintLength] = minHashPos;
+                    fingerprintList[fingerprintLength++] = nGramHashes[minHashPos];
                 }
             }
         }
 
-        return fingerprintList;
+        return new Fingerprint(
+                Arrays.copyOf(fingerprintList, fingerprintLength),
+                Arrays.copyOf(positions, fingerprintLength)
+        );
     }
 
-    private static Integer[] getNGramHashes(List<String> nGrams) {
+    private static int[] getNGramHashes(NGramView nGrams) {
         // save nGram hash values together with their position
-        Integer[] nGramHashValues = new Integer[nGrams.size()];
+        // (String.hashCode() of the nGrams, computed from the view without creating substrings)
+        int[] nGramHashValues = new int[nGrams.size()];
         for (int i=0; i<nGrams.size(); i++) {
-            nGramHashValues[i] = nGrams.get(i).hashCode();
+            int offset = nGrams.getFirstOffset() + i;
+            int hash = 0;
+            for (int pos=offset; pos<offset+nGrams.getNGramSize(); pos++) {
+                hash = 31 * hash + nGrams.charAt(pos);
+            }
+            nGramHashValues[i] = hash;
         }
         return nGramHashValues;
     }
@@ -77,12 +105,12 @@ public class Base {
      * Retrieve hash values for all windows (without filtering)
      * Used for debugging.
      *
-     * @param nGrams List of nGrams
+     * @param nGrams View of the nGrams
      * @param windowSize Winnowing window size
      * @return List of lists with hash values for each window
      */
-    private static List<List<Integer>> completeFingerprintList(List<String> nGrams, int windowSize) {
-        List<Integer> nGramHashes = Arrays.asList(getNGramHashes(nGrams));
+    private static List<List<Integer>> completeFingerprintList(NGramView nGrams, int windowSize) {
+        List<Integer> nGramHashes = IntStream.of(getNGramHashes(nGrams)).boxed().collect(Collectors.toList());
         return IntStream
                 .iterate(0, i -> i+1)
                 .limit(nGramHashes.size()-windowSize)
@@ -97,7 +125,7 @@ public class Base {
         return windowSize+nGramSize-1;
     }
 
-    private static int getWindowSize(int nGramSize) {
+    static int getWindowSize(int nGramSize) {
         // see Schleimer03 section "Experiments with Web Data"
         return 2*nGramSize;
     }
@@ -105,12 +133,12 @@ public class Base {
     // ngrams
     static double winnowingNGramSimilarity(String str1, String str2, int nGramSize,
                                            BiFunction<Set<Integer>, Set<Integer>, Double> coefficient) {
-        Set<Integer> set1 = new HashSet<>(
-                fingerprintList(nGramList(str1, nGramSize), getWindowSize(nGramSize))
+        Set<Integer> set1 = fingerprintSet(
+                fingerprintList(nGramView(str1, nGramSize), getWindowSize(nGramSize))
         );
 
-        Set<Integer> set2 = new HashSet<>(
-                fingerprintList(nGramList(str2, nGramSize), getWindowSize(nGramSize))
+        Set<Integer> set2 = fingerprintSet(
+                fingerprintList(nGramView(str2, nGramSize), getWindowSize(nGramSize))
         );
 
         return coefficient.apply(set1, set2);
@@ -119,12 +147,12 @@ public class Base {
     // ngrams + normalization
     static double winnowingNGramSimilarityNormalized(String str1, String str2, int nGramSize,
                                                      BiFunction<Set<Integer>, Set<Integer>, Double> coefficient) {
-        Set<Integer> set1 = new HashSet<>(
-                fingerprintList(nGramList(normalizeForNGram(str1), nGramSize), getWindowSize(nGramSize))
+        Set<Integer> set1 = fingerprintSet(
+                fingerprintList(nGramView(normalizeForNGram(str1), nGramSize), getWindowSize(nGramSize))
         );
 
-        Set<Integer> set2 = new HashSet<>(
-                fingerprintList(nGramList(normalizeForNGram(str2), nGramSize), getWindowSize(nGramSize))
+        Set<Integer> set2 = fingerprintSet(
+                fingerprintList(nGramView(normalizeForNGram(str2), nGramSize), getWindowSize(nGramSize))
         );
 
         return coefficient.apply(set1, set2);
@@ -132,37 +160,36 @@ public class Base {
 
     // ngrams + edit-based metric
     static double winnowingNGramLongestCommonSubsequenceSimilarity(String str1, String str2, int nGramSize,
-                                                   BiFunction<List<String>, List<String>, Double> editMetric) {
-        List<String> fingerprintList1 =
-                fingerprintList(nGramList(str1, nGramSize), getWindowSize(nGramSize))
-                        .stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.toList());
-
-        List<String> fingerprintList2 =
-                fingerprintList(nGramList(str2, nGramSize), getWindowSize(nGramSize))
-                        .stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.toList());
-
-        return editMetric.apply(fingerprintList1, fingerprintList2);
+                                                   ToDoubleBiFunction<int[], int[]> editMetric) {
+        // the edit metrics compare the hash values directly (see edit.Base, int[] specializations)
+        int[] fingerprintList1 = fingerprintList(nGramView(str1, nGramSize), getWindowSize(nGramSize));
+        int[] fingerprintList2 = fingerprintList(nGramView(str2, nGramSize), getWindowSize(nGramSize));
+
+        return editMetric.applyAsDouble(fingerprintList1, fingerprintList2);
     }
 
     // ngrams + normalization + edit-based metric
     static double winnowingNGramLongestCommonSubsequenceSimilarityNormalized(String str1, String str2, int nGramSize,
-                                                     BiFunction<List<String>, List<String>, Double> editMetric) {
-        List<String> fingerprintList1 =
-                fingerprintList(nGramList(normalizeForNGram(str1), nGramSize), getWindowSize(nGramSize))
-                        .stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.toList());
-
-        List<String> fingerprintList2 =
-                fingerprintList(nGramList(normalizeForNGram(str2), nGramSize), getWindowSize(nGramSize))
-                        .stream()
-                        .map(String::valueOf)
-                        .collect(Collectors.toList());
-
-        return editMetric.apply(fingerprintList1, fingerprintList2);
+                                                     ToDoubleBiFunction<int[], int[]> editMetric) {
+        int[] fingerprintList1 =
+                fingerprintList(nGramView(normalizeForNGram(str1), nGramSize), getWindowSize(nGramSize));
+        int[] fingerprintList2 =
+                fingerprintList(nGramView(normalizeForNGram(str2), nGramSize), getWindowSize(nGramSize));
+
+        return editMetric.applyAsDouble(fingerprintList1, fingerprintList2);
+    }
+
+    // ngrams + edit-based metric on the gaps between matching fingerprints (see AnchoredAlignment)
+    static double winnowingNGramAnchoredSimilarity(String str1, String str2, int nGramSize,
+                                                   ToDoubleFunction<AnchoredAlignment> similarity) {
+        return similarity.applyAsDouble(AnchoredAlignment.align(str1, str2, nGramSize));
+    }
+
+    private static Set<Integer> fingerprintSet(int[] fingerprintList) {
+        Set<Integer> fingerprintSet = new HashSet<>();
+        for (int hash : fingerprintList) {
+            fingerprintSet.add(hash);
+        }
+        return fingerprintSet;
     }
 }
@@ -77,4 +77,16 @@ public class Default {
                 org.sotorrent.stringsimilarity.edit.Base::optimalAlignment);
     }
 
+    // ngrams + levenshtein on the gaps between anchors (upper bound of the distance)
+    public static double winnowingNGramAnchoredLevenshtein(String str1, String str2) {
+        return Base.winnowingNGramAnchoredSimilarity(str1, str2, NGRAM_SIZE,
+                AnchoredAlignment::getLevenshteinSimilarity);
+    }
+
+    // ngrams + longest-common-subsequence on the gaps between anchors (lower bound of the LCS length)
+    public static double winnowingNGramAnchoredLongestCommonSubsequence(String str1, String str2) {
+        return Base.winnowingNGramAnchoredSimilarity(str1, str2, NGRAM_SIZE,
+                AnchoredAlignment::getLongestCommonSubsequenceSimilarity);
+    }
+
 }
@@ -0,0 +1,28 @@
+package org.sotorrent.stringsimilarity.fingerprint;
+
+/*
+ * Winnowing fingerprint: selected nGram hashes in order of their positions.
+ * positions[i] is the index of the nGram with hash hashes[i] (equal to its start position in the string without
+ * padding).
+ */
+final class Fingerprint {
+    private final int[] hashes;
+    private final int[] positions;
+
+    Fingerprint(int[] hashes, int[] positions) {
+        this.hashes = hashes;
+        this.positions = positions;
+    }
+
+    int[] getHashes() {
+        return hashes;
+    }
+
+    int[] getPositions() {
+        return positions;
+    }
+
+    int size() {
+        return hashes.length;
+    }
+}
@@ -1,16 +1,9 @@
 package org.sotorrent.stringsimilarity.profile;
 
-import com.google.common.collect.Multiset;
-import com.google.common.collect.Sets;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import org.sotorrent.stringsimilarity.KeyMultiset;
 
 import static org.sotorrent.stringsimilarity.Normalization.*;
 import static org.sotorrent.stringsimilarity.Tokenization.*;
-import static org.sotorrent.util.collections.MultisetCollector.toMultiset;
 
 /*
  * Profile-based similarity metrics.
@@ -24,17 +17,16 @@ public class Base {
 
     /*
      * Cosine similarity.
+     * The profiles are key multisets (see Tokenization.nGramKeyMultiset(), tokenKeyMultiset(), shingleKeyMultiset()),
+     * the union of the terms is enumerated by merging the sorted keys, no vectors are materialized.
      * See: https://en.wikipedia.org/wiki/Cosine_similarity
      */
-    static <T> double cosine(Multiset<T> s1, Multiset<T> s2, WeightingScheme weightingScheme) {
-        Map<T, Integer> profile1 = getProfile(s1);
-        Map<T, Integer> profile2 = getProfile(s2);
-
-        List<T> terms = getTerms(profile1, profile2);
+    static double cosine(KeyMultiset s1, KeyMultiset s2, WeightingScheme weightingScheme) {
+        long[] keys1 = s1.keys();
+        long[] keys2 = s2.keys();
+        int[] counts1 = s1.counts();
+        int[] counts2 = s2.counts();
 
-        // vectors for the two profiles
-        double[] v1 = new double[terms.size()];
-        double[] v2 = new double[terms.size()];
         // euclidean norm of the two vectors
         double norm1 = 0;
         double norm2 = 0;
@@ -43,32 +35,27 @@ public class Base {
         // test if v1==v2 to deal with rounding errors (sim should be 1.0)
         boolean equal = true;
 
-        for(int i=0; i<terms.size(); i++){
-            int tf_t_0 = profile1.get(terms.get(i)) != null ? profile1.get(terms.get(i)) : 0;
-            int tf_t_1 = profile2.get(terms.get(i)) != null ? profile2.get(terms.get(i)) : 0;
-
-            switch(weightingScheme){
-                case TERM_FREQUENCY:
-                    v1[i] = tf_t_0;
-                    v2[i] = tf_t_1;
-                    break;
-
-                // https://en.wikipedia.org/wiki/Okapi_BM25
-                case NORMALIZED_TERM_FREQUENCY:
-                    v1[i] = (1+k)*tf_t_0 / (tf_t_0 + k);
-                    v2[i] = (1+k)*tf_t_1 / (tf_t_1 + k);
-                    break;
-
-                case BOOL:
-                    v1[i] = (tf_t_0 != 0) ? 1 : 0;
-                    v2[i] = (tf_t_1 != 0) ? 1 : 0;
-                    break;
+        int i = 0;
+        int j = 0;
+        while (i < keys1.length || j < keys2.length) {
+            int tf_t_0 = 0;
+            int tf_t_1 = 0;
+            if (j == keys2.length || (i < keys1.length && keys1[i] < keys2[j])) {
+                tf_t_0 = counts1[i++];
+            } else if (i == keys1.length || keys1[i] > keys2[j]) {
+                tf_t_1 = counts2[j++];
+            } else {
+                tf_t_0 = counts1[i++];
+                tf_t_1 = counts2[j++];
             }
 
+            double v1 = weight(tf_t_0, weightingScheme);
+            double v2 = weight(tf_t_1, weightingScheme);
+
             equal = equal && (tf_t_0 == tf_t_1);
-            norm1 += Math.pow(v1[i], 2);
-            norm2 += Math.pow(v2[i], 2);
-            scalarProduct += v1[i] * v2[i]; // 0.0 if v1 and v2 are orthogonal
+            norm1 += v1 * v1;
+            norm2 += v2 * v2;
+            scalarProduct += v1 * v2; // 0.0 if v1 and v2 are orthogonal
         }
 
         norm1 = Math.sqrt(norm1);
@@ -77,14 +64,21 @@ public class Base {
         return equal ? 1.0 : scalarProduct / (norm1 * norm2);
     }
 
-    private static <T> Map<T, Integer> getProfile(Multiset<T> s) {
-        return s.entrySet()
-                .stream()
-                .collect(Collectors.toMap(Multiset.Entry::getElement, Multiset.Entry::getCount));
-    }
+    private static double weight(int tf, WeightingScheme weightingScheme) {
+        switch(weightingScheme){
+            case TERM_FREQUENCY:
+                return tf;
+
+            // https://en.wikipedia.org/wiki/Okapi_BM25
+            case NORMALIZED_TERM_FREQUENCY:
+                return (1+k)*tf / (tf + k);
 
-    private static <T> List<T> getTerms(Map<T, Integer> profile1, Map<T, Integer> profile2) {
-        return new ArrayList<>(Sets.union(profile1.keySet(), profile2.keySet()));
+            case BOOL:
+                return (tf != 0) ? 1 : 0;
+
+            default:
+                throw new IllegalArgumentException("Unknown weighting scheme: " + weightingScheme);
+        }
     }
 
     /*
@@ -93,20 +87,16 @@ public class Base {
 
     // tokens
     static double cosineTokenNormalized(String str1, String str2, WeightingScheme weightingScheme) {
-        Multiset<String> multiset1 = tokens(normalizeForEdit(str1))
-                .stream()
-                .collect(toMultiset());
-        Multiset<String> multiset2 = tokens(normalizeForEdit(str2))
-                .stream()
-                .collect(toMultiset());
+        KeyMultiset multiset1 = tokenKeyMultiset(tokenView(normalizeForEdit(str1)));
+        KeyMultiset multiset2 = tokenKeyMultiset(tokenView(normalizeForEdit(str2)));
 
         return cosine(multiset1, multiset2, weightingScheme);
     }
 
     // ngrams
     static double cosineNGramNormalized(String str1, String str2, int nGramSize, WeightingScheme weightingScheme) {
-        Multiset<String> nGramMultiset1 = nGramMultiset(normalizeForNGram(str1), nGramSize);
-        Multiset<String> nGramMultiset2 = nGramMultiset(normalizeForNGram(str2), nGramSize);
+        KeyMultiset nGramMultiset1 = nGramKeyMultiset(normalizeForNGram(str1), nGramSize);
+        KeyMultiset nGramMultiset2 = nGramKeyMultiset(normalizeForNGram(str2), nGramSize);
 
         return cosine(nGramMultiset1, nGramMultiset2, weightingScheme);
     }
@@ -117,8 +107,8 @@ public class Base {
 
     // shingles
     static double cosineNShingleNormalized(String str1, String str2, int shingleSize, WeightingScheme weightingScheme) {
-        Multiset<String> shingleMultiset1 = shingleMultiset(tokens(normalizeForShingle(str1)), shingleSize);
-        Multiset<String> shingleMultiset2 = shingleMultiset(tokens(normalizeForShingle(str2)), shingleSize);
+        KeyMultiset shingleMultiset1 = shingleKeyMultiset(shingleView(tokenView(normalizeForShingle(str1)), shingleSize));
+        KeyMultiset shingleMultiset2 = shingleKeyMultiset(shingleView(tokenView(normalizeForShingle(str2)), shingleSize));
 
         return cosine(shingleMultiset1, shingleMultiset2, weightingScheme);
     }
@@ -133,28 +123,30 @@ public class Base {
      * See "qGram distance" in paper Ukkonen92.
      * See: https://github.com/tdebatty/java-string-similarity#q-gram
      * See: https://en.wikipedia.org/wiki/Taxicab_geometry
+     * The terms are enumerated by merging the sorted keys of the profiles (see cosine()).
      */
-    static <T> double manhattan(Multiset<T> s1, Multiset<T> s2) {
-        Map<T, Integer> profile1 = getProfile(s1);
-        Map<T, Integer> profile2 = getProfile(s2);
+    static double manhattan(KeyMultiset s1, KeyMultiset s2) {
+        long[] keys1 = s1.keys();
+        long[] keys2 = s2.keys();
+        int[] counts1 = s1.counts();
+        int[] counts2 = s2.counts();
 
-        List<T> terms = getTerms(profile1, profile2);
-
-        // manhattan norm of vector for profile 1
-        int norm1 = 0;
-        // manhattan norm of vector for profile 2
-        int norm2 = 0;
         // manhattan distance between the two vectors
         int dist = 0;
-        for (T term : terms) {
-            int tf_1 = profile1.get(term) != null ? profile1.get(term) : 0;
-            int tf_2 = profile2.get(term) != null ? profile2.get(term) : 0;
-            norm1 += Math.abs(tf_1);
-            norm2 += Math.abs(tf_2);
-            dist += Math.abs(tf_1 - tf_2);
+        int i = 0;
+        int j = 0;
+        while (i < keys1.length || j < keys2.length) {
+            if (j == keys2.length || (i < keys1.length && keys1[i] < keys2[j])) {
+                dist += counts1[i++];
+            } else if (i == keys1.length || keys1[i] > keys2[j]) {
+                dist += counts2[j++];
+            } else {
+                dist += Math.abs(counts1[i++] - counts2[j++]);
+            }
         }
 
-        return 1.0-(double)dist/(norm1+norm2);
+        // the manhattan norm of a profile is its number of terms including duplicates
+        return 1.0-(double)dist/(s1.size()+s2.size());
     }
 
     /*
@@ -163,28 +155,24 @@ public class Base {
 
     // tokens
     static double manhattanTokenNormalized(String str1, String str2) {
-        Multiset<String> multiset1 = tokens(normalizeForEdit(str1))
-                .stream()
-                .collect(toMultiset());
-        Multiset<String> multiset2 = tokens(normalizeForEdit(str2))
-                .stream()
-                .collect(toMultiset());
+        KeyMultiset multiset1 = tokenKeyMultiset(tokenView(normalizeForEdit(str1)));
+        KeyMultiset multiset2 = tokenKeyMultiset(tokenView(normalizeForEdit(str2)));
 
         return manhattan(multiset1, multiset2);
     }
 
     // ngrams
     static double manhattanNGramNormalized(String str1, String str2, int nGramSize) {
-        Multiset<String> nGramMultiset1 = nGramMultiset(normalizeForNGram(str1), nGramSize);
-        Multiset<String> nGramMultiset2 = nGramMultiset(normalizeForNGram(str2), nGramSize);
+        KeyMultiset nGramMultiset1 = nGramKeyMultiset(normalizeForNGram(str1), nGramSize);
+        KeyMultiset nGramMultiset2 = nGramKeyMultiset(normalizeForNGram(str2), nGramSize);
 
         return manhattan(nGramMultiset1, nGramMultiset2);
     }
 
     // shingles
     static double manhattanNShingleNormalized(String str1, String str2, int shingleSize) {
-        Multiset<String> shingleMultiset1 = shingleMultiset(tokens(normalizeForShingle(str1)), shingleSize);
-        Multiset<String> shingleMultiset2 = shingleMultiset(tokens(normalizeForShingle(str2)), shingleSize);
+        KeyMultiset shingleMultiset1 = shingleKeyMultiset(shingleView(tokenView(normalizeForShingle(str1)), shingleSize));
+        KeyMultiset shingleMultiset2 = shingleKeyMultiset(shingleView(tokenView(normalizeForShingle(str2)), shingleSize));
 
         return manhattan(shingleMultiset1, shingleMultiset2);
     }
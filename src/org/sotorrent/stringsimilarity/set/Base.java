@@ -1,12 +1,12 @@
 package org.sotorrent.stringsimilarity.set;
 
-import com.google.common.collect.Sets;
 import org.apache.lucene.search.spell.NGramDistance;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.ToDoubleBiFunction;
 
 import static org.sotorrent.stringsimilarity.Normalization.*;
 import static org.sotorrent.stringsimilarity.Tokenization.*;
@@ -15,6 +15,9 @@ import static org.sotorrent.stringsimilarity.Tokenization.*;
  * Set-based similarity metrics.
  *
  * All base metrics must return a value between 0.0 and 1.0.
+ * The coefficients are computed from the sizes of the two sets and of their intersection (|s1 ∪ s2| = |s1| + |s2| -
+ * |s1 ∩ s2|). For sorted sets of primitive keys or IDs, the intersection is computed without hashing (see
+ * Intersection).
  */
 public class Base {
     /**
@@ -36,7 +39,28 @@ public class Base {
         if (s1.size() == 0 && s2.size() == 0) {
             return 1.0;
         } else {
-            return (double) Sets.intersection(s1, s2).size() / Sets.union(s1, s2).size();
+            int intersection = intersectionSize(s1, s2);
+            return (double) intersection / (s1.size() + s2.size() - intersection);
+        }
+    }
+
+    // sorted distinct keys (see Tokenization.nGramKeySet())
+    public static double jaccard(long[] s1, long[] s2) {
+        if (s1.length == 0 && s2.length == 0) {
+            return 1.0;
+        } else {
+            int intersection = Intersection.size(s1, s2);
+            return (double) intersection / (s1.length + s2.length - intersection);
+        }
+    }
+
+    // sorted distinct IDs (see Tokenization.idSet())
+    public static double jaccard(int[] s1, int[] s2) {
+        if (s1.length == 0 && s2.length == 0) {
+            return 1.0;
+        } else {
+            int intersection = Intersection.size(s1, s2);
+            return (double) intersection / (s1.length + s2.length - intersection);
         }
     }
 
@@ -48,10 +72,27 @@ public class Base {
         if (s1.size() == 0 && s2.size() == 0) {
             return 1.0;
         } else {
-            return (double) 2 * Sets.intersection(s1, s2).size() / (s1.size() + s2.size());
+            return (double) 2 * intersectionSize(s1, s2) / (s1.size() + s2.size());
+        }
+    }
+
+    public static double dice(long[] s1, long[] s2) {
+        if (s1.length == 0 && s2.length == 0) {
+            return 1.0;
+        } else {
+            return (double) 2 * Intersection.size(s1, s2) / (s1.length + s2.length);
         }
     }
 
+    public static double dice(int[] s1, int[] s2) {
+        if (s1.length == 0 && s2.length == 0) {
+            return 1.0;
+        } else {
+            return (double) 2 * Intersection.size(s1, s2) / (s1.length + s2.length);
+        }
+    }
+
+
     // ********** OVERLAP **********
 
     // https://en.wikipedia.org/wiki/Overlap_coefficient
@@ -59,10 +100,39 @@ public class Base {
         if (s1.size() == 0 && s2.size() == 0) {
             return 1.0;
         } else {
-            return (double) Sets.intersection(s1, s2).size() / Math.min(s1.size(), s2.size());
+            return (double) intersectionSize(s1, s2) / Math.min(s1.size(), s2.size());
         }
     }
 
+    public static double overlap(long[] s1, long[] s2) {
+        if (s1.length == 0 && s2.length == 0) {
+            return 1.0;
+        } else {
+            return (double) Intersection.size(s1, s2) / Math.min(s1.length, s2.length);
+        }
+    }
+
+    public static double overlap(int[] s1, int[] s2) {
+        if (s1.length == 0 && s2.length == 0) {
+            return 1.0;
+        } else {
+            return (double) Intersection.size(s1, s2) / Math.min(s1.length, s2.length);
+        }
+    }
+
+    // the smaller set is iterated and each element is looked up once in the larger set
+    private static <T> int intersectionSize(Set<T> s1, Set<T> s2) {
+        Set<T> smaller = s1.size() <= s2.size() ? s1 : s2;
+        Set<T> larger = smaller == s1 ? s2 : s1;
+        int intersection = 0;
+        for (T element : smaller) {
+            if (larger.contains(element)) {
+                intersection++;
+            }
+        }
+        return intersection;
+    }
+
 
     // ********** BASE VARIANTS **********
 
@@ -84,49 +154,66 @@ public class Base {
         return coefficient.apply(tokenSet1, tokenSet2);
     }
 
-    // ngrams
+    // tokens (as primitive keys, see Tokenization.tokenKeys())
+    static double tokenKeySimilarity(String str1, String str2, ToDoubleBiFunction<long[], long[]> coefficient) {
+        long[] tokenSet1 = tokenKeySet(tokenView(str1));
+        long[] tokenSet2 = tokenKeySet(tokenView(str2));
+
+        return coefficient.applyAsDouble(tokenSet1, tokenSet2);
+    }
+
+    // tokens + normalization
+    static double tokenKeySimilarityNormalized(String str1, String str2,
+                                               ToDoubleBiFunction<long[], long[]> coefficient) {
+        long[] tokenSet1 = tokenKeySet(tokenView(normalizeForEdit(str1)));
+        long[] tokenSet2 = tokenKeySet(tokenView(normalizeForEdit(str2)));
+
+        return coefficient.applyAsDouble(tokenSet1, tokenSet2);
+    }
+
+    // ngrams (as primitive keys, see Tokenization.nGramKeys())
     static double nGramSimilarity(String str1, String str2, int nGramSize,
-                                  BiFunction<Set<String>, Set<String>, Double> coefficient) {
-        Set<String> nGramSet1 = nGramSet(str1, nGramSize);
-        Set<String> nGramSet2 = nGramSet(str2, nGramSize);
+                                  ToDoubleBiFunction<long[], long[]> coefficient) {
+        long[] nGramSet1 = nGramKeySet(str1, nGramSize);
+        long[] nGramSet2 = nGramKeySet(str2, nGramSize);
 
-        return coefficient.apply(nGramSet1, nGramSet2);
+        return coefficient.applyAsDouble(nGramSet1, nGramSet2);
     }
 
     // ngrams + normalization
     static double nGramSimilarityNormalized(String str1, String str2, int nGramSize,
-                                            BiFunction<Set<String>, Set<String>, Double> coefficient) {
-        Set<String> nGramSet1 = nGramSet(normalizeForNGram(str1), nGramSize);
-        Set<String> nGramSet2 = nGramSet(normalizeForNGram(str2), nGramSize);
+                                            ToDoubleBiFunction<long[], long[]> coefficient) {
+        long[] nGramSet1 = nGramKeySet(normalizeForNGram(str1), nGramSize);
+        long[] nGramSet2 = nGramKeySet(normalizeForNGram(str2), nGramSize);
 
-        return coefficient.apply(nGramSet1, nGramSet2);
+        return coefficient.applyAsDouble(nGramSet1, nGramSet2);
     }
 
     // ngrams + normalization + padding
     static double nGramSimilarityNormalizedPadding(String str1, String str2, int nGramSize,
-                                                   BiFunction<Set<String>, Set<String>, Double> coefficient) {
-        Set<String> nGramSet1 = nGramSet(normalizeForNGram(str1), nGramSize, true);
-        Set<String> nGramSet2 = nGramSet(normalizeForNGram(str2), nGramSize, true);
+                                                   ToDoubleBiFunction<long[], long[]> coefficient) {
+        long[] nGramSet1 = nGramKeySet(normalizeForNGram(str1), nGramSize, true);
+        long[] nGramSet2 = nGramKeySet(normalizeForNGram(str2), nGramSize, true);
 
-        return coefficient.apply(nGramSet1, nGramSet2);
+        return coefficient.applyAsDouble(nGramSet1, nGramSet2);
     }
 
-    // shingles
+    // shingles (as primitive keys, see Tokenization.shingleKeys())
     static double nShingleSimilarity(String str1, String str2, int shingleSize,
-                                     BiFunction<Set<String>, Set<String>, Double> coefficient) {
-        Set<String> shingleSet1 = shingleSet(tokens(str1), DEFAULT_SEPARATOR, shingleSize);
-        Set<String> shingleSet2 = shingleSet(tokens(str2), DEFAULT_SEPARATOR, shingleSize);
+                                     ToDoubleBiFunction<long[], long[]> coefficient) {
+        long[] shingleSet1 = shingleKeySet(shingleView(tokenView(str1), shingleSize));
+        long[] shingleSet2 = shingleKeySet(shingleView(tokenView(str2), shingleSize));
 
-        return coefficient.apply(shingleSet1, shingleSet2);
+        return coefficient.applyAsDouble(shingleSet1, shingleSet2);
     }
 
     // shingles + normalization
     static double nShingleSimilarityNormalized(String str1, String str2, int shingleSize,
-                                               BiFunction<Set<String>, Set<String>, Double> coefficient) {
-        Set<String> shingleSet1 = shingleSet(tokens(normalizeForShingle(str1)), DEFAULT_SEPARATOR, shingleSize);
-        Set<String> shingleSet2 = shingleSet(tokens(normalizeForShingle(str2)), DEFAULT_SEPARATOR, shingleSize);
+                                               ToDoubleBiFunction<long[], long[]> coefficient) {
+        long[] shingleSet1 = shingleKeySet(shingleView(tokenView(normalizeForShingle(str1)), shingleSize));
+        long[] shingleSet2 = shingleKeySet(shingleView(tokenView(normalizeForShingle(str2)), shingleSize));
 
-        return coefficient.apply(shingleSet1, shingleSet2);
+        return coefficient.applyAsDouble(shingleSet1, shingleSet2);
     }
 
 
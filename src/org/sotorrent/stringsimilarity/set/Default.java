@@ -19,12 +19,12 @@ public class Default {
 
     // tokens
     public static double tokenJaccard(String str1, String str2) {
-        return Base.tokenSimilarity(str1, str2, Base::jaccard);
+        return Base.tokenKeySimilarity(str1, str2, Base::jaccard);
     }
 
     // tokens + normalization
     public static double tokenJaccardNormalized(String str1, String str2) {
-        return Base.tokenSimilarityNormalized(str1, str2, Base::jaccard);
+        return Base.tokenKeySimilarityNormalized(str1, str2, Base::jaccard);
     }
 
     // ngrams
@@ -57,12 +57,12 @@ public class Default {
 
     // tokens
     public static double tokenDice(String str1, String str2) {
-        return Base.tokenSimilarity(str1, str2, Base::dice);
+        return Base.tokenKeySimilarity(str1, str2, Base::dice);
     }
 
     // tokens + normalization
     public static double tokenDiceNormalized(String str1, String str2) {
-        return Base.tokenSimilarityNormalized(str1, str2, Base::dice);
+        return Base.tokenKeySimilarityNormalized(str1, str2, Base::dice);
     }
 
     // ngrams
@@ -94,12 +94,12 @@ public class Default {
 
     // tokens
     public static double tokenOverlap(String str1, String str2) {
-        return Base.tokenSimilarity(str1, str2, Base::overlap);
+        return Base.tokenKeySimilarity(str1, str2, Base::overlap);
     }
 
     // tokens + normalization
     public static double tokenOverlapNormalized(String str1, String str2) {
-        return Base.tokenSimilarityNormalized(str1, str2, Base::overlap);
+        return Base.tokenKeySimilarityNormalized(str1, str2, Base::overlap);
     }
 
     // ngrams
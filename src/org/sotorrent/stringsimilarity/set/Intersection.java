@@ -0,0 +1,150 @@
+package org.sotorrent.stringsimilarity.set;
+
+/*
+ * Size of the intersection of two sorted sets of distinct keys (see Tokenization.nGramKeySet()) or distinct IDs (see
+ * Tokenization.idSet()).
+ *
+ * Sets of similar size are intersected with a merge step, which is vectorized if the Vector API is available (see
+ * VectorKernels). If one set is at least GALLOP_RATIO times larger than the other, each element of the smaller set is
+ * searched in the larger set by galloping (exponential search followed by binary search) from the position of the
+ * previous element, which takes O(m log(n/m)) instead of O(m+n) steps.
+ *
+ * See paper Demaine00: "Adaptive set intersections, unions, and differences"
+ */
+final class Intersection {
+    static final int GALLOP_RATIO = 32;
+
+    private Intersection() {}
+
+    static int size(long[] s1, long[] s2) {
+        if (s1.length > s2.length) {
+            return size(s2, s1);
+        }
+        if (s1.length == 0) {
+            return 0;
+        }
+        if (s2.length / s1.length >= GALLOP_RATIO) {
+            return gallopSize(s1, s2);
+        }
+        if (VectorKernels.supportsLongs(s1.length)) {
+            return VectorKernels.intersectionSize(s1, s2);
+        }
+        return mergeSize(s1, 0, s2, 0);
+    }
+
+    static int size(int[] s1, int[] s2) {
+        if (s1.length > s2.length) {
+            return size(s2, s1);
+        }
+        if (s1.length == 0) {
+            return 0;
+        }
+        if (s2.length / s1.length >= GALLOP_RATIO) {
+            return gallopSize(s1, s2);
+        }
+        if (VectorKernels.supportsInts(s1.length)) {
+            return VectorKernels.intersectionSize(s1, s2);
+        }
+        return mergeSize(s1, 0, s2, 0);
+    }
+
+    // intersection of s1[from1..] and s2[from2..] (merge step)
+    static int mergeSize(long[] s1, int from1, long[] s2, int from2) {
+        int intersection = 0;
+        int i = from1;
+        int j = from2;
+        while (i < s1.length && j < s2.length) {
+            if (s1[i] < s2[j]) {
+                i++;
+            } else if (s1[i] > s2[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        return intersection;
+    }
+
+    static int mergeSize(int[] s1, int from1, int[] s2, int from2) {
+        int intersection = 0;
+        int i = from1;
+        int j = from2;
+        while (i < s1.length && j < s2.length) {
+            if (s1[i] < s2[j]) {
+                i++;
+            } else if (s1[i] > s2[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        return intersection;
+    }
+
+    // small is searched in large
+    private static int gallopSize(long[] small, long[] large) {
+        int intersection = 0;
+        int low = 0; // all elements of large before low are smaller than the current element of small
+        for (long key : small) {
+            // exponential search: large[low+step/2-1] < key <= large[low+step-1] (or the end of large)
+            int step = 1;
+            while (low + step - 1 < large.length && large[low + step - 1] < key) {
+                step <<= 1;
+            }
+            // binary search in large[low+step/2, min(low+step, large.length))
+            int from = low + (step >> 1);
+            int to = Math.min(low + step, large.length);
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (large[mid] < key) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            if (from == large.length) {
+                break;
+            }
+            if (large[from] == key) {
+                intersection++;
+                from++;
+            }
+            low = from;
+        }
+        return intersection;
+    }
+
+    private static int gallopSize(int[] small, int[] large) {
+        int intersection = 0;
+        int low = 0;
+        for (int key : small) {
+            int step = 1;
+            while (low + step - 1 < large.length && large[low + step - 1] < key) {
+                step <<= 1;
+            }
+            int from = low + (step >> 1);
+            int to = Math.min(low + step, large.length);
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (large[mid] < key) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            if (from == large.length) {
+                break;
+            }
+            if (large[from] == key) {
+                intersection++;
+                from++;
+            }
+            low = from;
+        }
+        return intersection;
+    }
+}
@@ -0,0 +1,29 @@
+package org.sotorrent.stringsimilarity.set;
+
+/*
+ * Entry point for the SIMD variants of the set intersection (see Intersection).
+ *
+ * The Vector API (jdk.incubator.vector) is not available on Java 11, so this version never supports a set and
+ * Intersection always uses its scalar merge step. The multi-release JAR contains a Java 17 version of this class (see
+ * src-java17) that delegates to VectorizedIntersection if the module jdk.incubator.vector is present at runtime.
+ * The kernels below are never selected, they delegate to the scalar merge step so that they stay correct.
+ */
+final class VectorKernels {
+    private VectorKernels() {}
+
+    static boolean supportsLongs(int length) {
+        return false;
+    }
+
+    static boolean supportsInts(int length) {
+        return false;
+    }
+
+    static int intersectionSize(long[] s1, long[] s2) {
+        return Intersection.mergeSize(s1, 0, s2, 0);
+    }
+
+    static int intersectionSize(int[] s1, int[] s2) {
+        return Intersection.mergeSize(s1, 0, s2, 0);
+    }
+}
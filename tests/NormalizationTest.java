@@ -48,4 +48,15 @@ class NormalizationTest {
         String strNorm = normalizeForShingle(str);
         assertEquals("main string args print test exit 0 ", strNorm);
     }
+
+    @Test
+    void testFusedNormalization(){
+        // the default normalizations are single-pass, but must be identical to chaining the methods above
+        String[] strings = {str, "", " \t ", "a . b ;\n; c", "Foo_Bar{Baz}:: QUX;", "Größe: ÄÖÜ ; İstanbul ΣΑΣ", "x\u000B\fy\r\n"};
+        for (String s : strings) {
+            assertEquals(unifyWhitespaces(removeSpecialChars(toLowerCase(s))), normalizeForEdit(s));
+            assertEquals(removeWhitespaces(removeSpecialChars(toLowerCase(s))), normalizeForNGram(s));
+            assertEquals(unifyWhitespaces(replaceNonWordChars(toLowerCase(s))), normalizeForShingle(s));
+        }
+    }
 }
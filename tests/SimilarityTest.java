@@ -1,12 +1,32 @@
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.sotorrent.stringsimilarity.Similarity;
+import org.sotorrent.stringsimilarity.TermDictionary;
+import org.sotorrent.stringsimilarity.edit.Budget;
+import org.sotorrent.stringsimilarity.edit.BudgetExceededException;
+import org.sotorrent.stringsimilarity.edit.BudgetedMetric;
+import org.sotorrent.stringsimilarity.edit.EditOperation;
+import org.sotorrent.stringsimilarity.edit.EditScript;
+import org.sotorrent.stringsimilarity.edit.EditWorkspace;
+import org.sotorrent.stringsimilarity.edit.LevenshteinQuery;
+import org.sotorrent.stringsimilarity.edit.Wavefront;
+import org.sotorrent.stringsimilarity.fingerprint.AnchoredAlignment;
 import org.sotorrent.stringsimilarity.profile.Variants;
 import org.sotorrent.util.MathUtils;
 import org.sotorrent.util.exceptions.InputTooShortException;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.sotorrent.stringsimilarity.Normalization.normalizeForEdit;
+import static org.sotorrent.stringsimilarity.Tokenization.idSet;
+import static org.sotorrent.stringsimilarity.Tokenization.tokenIds;
 import static org.sotorrent.stringsimilarity.edit.Variants.*;
 import static org.sotorrent.stringsimilarity.set.Variants.*;
 import static org.hamcrest.Matchers.*;
@@ -60,6 +80,17 @@ class SimilarityTest {
         // max length: 4
         // levenshtein distance: 1
         assertEquals((4.0-1.0)/4.0, levenshtein("2007", "2008"), Similarity.DELTA_MAX);
+
+        // str1: "xab"
+        // str2: "abc"
+        // max length: 3
+        // levenshtein distance: 2 (delete "x", insert "c")
+        assertEquals((3.0-2.0)/3.0, levenshtein("xab", "abc"), Similarity.DELTA_MAX);
+
+        // more than 64 characters => multiple bit vectors
+        // max length: 142
+        // levenshtein distance: 66
+        assertEquals((142.0-66.0)/142.0, levenshtein(t1, t2), Similarity.DELTA_MAX);
     }
 
     @Test
@@ -86,6 +117,16 @@ class SimilarityTest {
         // max length: 4
         // damerau-levenshtein distance: 1
         assertEquals((4.0-1.0)/4.0, damerauLevenshtein("2007", "2008"), Similarity.DELTA_MAX);
+
+        // str1: "αβγδ"
+        // str2: "βαδγ"
+        // max length: 4
+        // damerau-levenshtein distance: 2 (two transpositions of characters outside of the ASCII range)
+        assertEquals((4.0-2.0)/4.0, damerauLevenshtein("αβγδ", "βαδγ"), Similarity.DELTA_MAX);
+
+        // max length: 142
+        // damerau-levenshtein distance: 66
+        assertEquals((142.0-66.0)/142.0, damerauLevenshtein(t1, t2), Similarity.DELTA_MAX);
     }
 
     @Test
@@ -105,6 +146,228 @@ class SimilarityTest {
         // max length: 4
         // optimal string alignment distance: 1
         assertEquals((4.0-1.0)/4.0, optimalAlignment("2007", "2008"), Similarity.DELTA_MAX);
+
+        // more than 64 characters => multiple bit vectors
+        // max length: 142
+        // optimal string alignment distance: 66
+        assertEquals((142.0-66.0)/142.0, optimalAlignment(t1, t2), Similarity.DELTA_MAX);
+
+        // token IDs: [1, 2, 3, 4] and [1, 3, 2, 4]
+        // optimal string alignment distance: 1 (transposition)
+        assertEquals((4.0-1.0)/4.0, org.sotorrent.stringsimilarity.edit.Base.optimalAlignment(
+                new int[]{1, 2, 3, 4}, new int[]{1, 3, 2, 4}), Similarity.DELTA_MAX);
+        assertEquals(optimalAlignment("paul", "pual"), org.sotorrent.stringsimilarity.edit.Base.optimalAlignment(
+                Arrays.asList("p", "a", "u", "l"), Arrays.asList("p", "u", "a", "l")), Similarity.DELTA_MAX);
+    }
+
+    @Test
+    void testEditCommonPrefixAndSuffix() {
+        // str1: "public String f(String s)"
+        // str2: "public String func(String s)"
+        // common prefix: "public String f", common suffix: "(String s)"
+        // max length: 28
+        // levenshtein, damerau-levenshtein and optimal string alignment distance: 3
+        // longest common subsequence: 25
+        assertEquals((28.0-3.0)/28.0, levenshtein(s1, s2), Similarity.DELTA_MAX);
+        assertEquals((28.0-3.0)/28.0, damerauLevenshtein(s1, s2), Similarity.DELTA_MAX);
+        assertEquals((28.0-3.0)/28.0, optimalAlignment(s1, s2), Similarity.DELTA_MAX);
+        assertEquals(25.0/28.0, longestCommonSubsequence(s1, s2), Similarity.DELTA_MAX);
+
+        // identical and empty inputs
+        assertEquals(1.0, levenshtein(t1, t1), Similarity.DELTA_MAX);
+        assertEquals(1.0, damerauLevenshtein(t1, new String(t1)), Similarity.DELTA_MAX);
+        assertEquals(1.0, optimalAlignment(t1, t1), Similarity.DELTA_MAX);
+        assertEquals(1.0, longestCommonSubsequence(t1, new String(t1)), Similarity.DELTA_MAX);
+        assertEquals(0.0, longestCommonSubsequence(t1, ""), Similarity.DELTA_MAX);
+        assertEquals(0.0, optimalAlignment("", t1), Similarity.DELTA_MAX);
+    }
+
+    @Test
+    void testEditWorkspace() {
+        // a workspace is reused across comparisons of different sizes and metrics
+        EditWorkspace workspace = new EditWorkspace();
+        for (int i=0; i<2; i++) {
+            assertEquals(66, org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance(t1, t2, workspace));
+            assertEquals(3, org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance(s1, s2, workspace));
+            assertEquals(66, org.sotorrent.stringsimilarity.edit.Base.damerauLevenshteinDistance(t1, t2, workspace));
+            assertEquals(3, org.sotorrent.stringsimilarity.edit.Base.damerauLevenshteinDistance(s1, s2, workspace));
+            assertEquals(66, org.sotorrent.stringsimilarity.edit.Base.optimalAlignmentDistance(t1, t2, workspace));
+            assertEquals(100, org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequenceLength(t1, t2, workspace));
+            assertEquals(25, org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequenceLength(s1, s2, workspace));
+            assertEquals(3, org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance(t1, t2, 2, workspace));
+        }
+    }
+
+    @Test
+    void testEditWorkspaceLimit() {
+        // Damerau-Levenshtein rows for 500 distinct symbols and 5000 columns exceed MAX_CACHED_CELLS
+        Random random = new Random(42);
+        StringBuilder long1 = new StringBuilder();
+        StringBuilder long2 = new StringBuilder();
+        for (int i=0; i<5000; i++) {
+            long1.append((char) (0x4e00 + random.nextInt(500)));
+            long2.append((char) (0x4e00 + random.nextInt(500)));
+        }
+
+        // the workspace of the thread only keeps buffers linear in the input length, not the rows
+        EditWorkspace workspace = EditWorkspace.current();
+        long cachedCells = workspace.getCachedCells();
+        int distance = org.sotorrent.stringsimilarity.edit.Base.damerauLevenshteinDistance(
+                long1.toString(), long2.toString());
+        assertTrue(workspace.getCachedCells() - cachedCells < 10L * long1.length());
+
+        // a workspace of the caller keeps them
+        EditWorkspace unbounded = new EditWorkspace();
+        assertEquals(distance, org.sotorrent.stringsimilarity.edit.Base.damerauLevenshteinDistance(
+                long1.toString(), long2.toString(), unbounded));
+        assertTrue(unbounded.getCachedCells() > EditWorkspace.MAX_CACHED_CELLS);
+    }
+
+    @Test
+    void testLevenshteinQuery() {
+        LevenshteinQuery query = LevenshteinQuery.prepare(t1);
+        assertEquals(66, query.distance(t2));
+        assertEquals(0, query.distance(t1));
+
+        // distances: 66, 0, and two candidates that are skipped because their length differs by more than 70
+        int[] distances = query.distances(Arrays.asList(t2, t1, "", s1), 70);
+        assertEquals(66, distances[0]);
+        assertEquals(0, distances[1]);
+        assertEquals(71, distances[2]);
+        assertEquals(71, distances[3]);
+
+        assertEquals(3, LevenshteinQuery.prepare(s1).distance(s2, 3));
+        assertEquals(3, LevenshteinQuery.prepare(s1).distance(s2, 2)); // bound exceeded => maxDist+1
+    }
+
+    @Test
+    void testWavefront() {
+        // more than one row block and column block
+        String long1 = String.join("", Collections.nCopies(80, t1));
+        String long2 = String.join("", Collections.nCopies(80, t2));
+        int levenshteinDistance = org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance(long1, long2);
+        int lcsLength = org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequenceLength(long1, long2);
+
+        long threshold = Wavefront.getThreshold();
+        try {
+            Wavefront.setThreshold(0);
+            assertEquals(levenshteinDistance, org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance(long1, long2));
+            assertEquals(lcsLength, org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequenceLength(long1, long2));
+        } finally {
+            Wavefront.setThreshold(threshold);
+        }
+    }
+
+    @Test
+    void testLongPatterns() {
+        // patterns of 64+ words, long enough for the SIMD kernels (see edit.VectorKernels) if the Vector API is enabled
+        Random random = new Random(42);
+        StringBuilder long1 = new StringBuilder();
+        StringBuilder long2 = new StringBuilder();
+        for (int i=0; i<4200; i++) {
+            char c = (char) ('a' + random.nextInt(4));
+            long1.append(c);
+            int edit = random.nextInt(20);
+            if (edit == 0) {
+                long2.append((char) ('a' + random.nextInt(4))); // substitution (or match)
+            } else if (edit == 1) {
+                long2.append(c).append((char) ('a' + random.nextInt(4))); // insertion
+            } else if (edit != 2) {
+                long2.append(c); // edit == 2: deletion
+            }
+        }
+        // no common prefix or suffix to strip
+        long2.setCharAt(0, 'x');
+        long2.setCharAt(long2.length() - 1, 'x');
+
+        assertEquals(referenceLevenshteinDistance(long1, long2),
+                org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance(long1.toString(), long2.toString()));
+        assertEquals(referenceLongestCommonSubsequenceLength(long1, long2),
+                org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequenceLength(long1, long2));
+    }
+
+    @Test
+    void testEditScript() {
+        EditScript script = org.sotorrent.stringsimilarity.edit.Base.editScript("paul", "pual");
+        assertEquals(Arrays.asList(EditOperation.MATCH, EditOperation.TRANSPOSE, EditOperation.MATCH), script.getOperations());
+        assertEquals(1, script.getDistance());
+
+        // "abcdef" -> "abdcefg": transposition of "cd", insertion of "g"
+        assertEquals("MMTMMI", org.sotorrent.stringsimilarity.edit.Base.editScript("abcdef", "abdcefg").toString());
+        assertEquals("DD", org.sotorrent.stringsimilarity.edit.Base.editScript("ab", "").toString());
+        assertEquals("", org.sotorrent.stringsimilarity.edit.Base.editScript("", "").toString());
+
+        // optimal string alignment distance: 3 (levenshtein distance: 5)
+        assertEquals("MTMMTMIMMMMMMM", org.sotorrent.stringsimilarity.edit.Base.editScript("dhbbfihdfcafgjg", "dbhbfhidjfcafgjg").toString());
+
+        // transposition of the characters before and after the middle row of the linear-space alignment
+        String affix = "cdefgh".repeat(8) + "c";
+        assertEquals("S" + "M".repeat(49) + "T" + "M".repeat(49) + "S", org.sotorrent.stringsimilarity.edit.Base.editScript(
+                "x" + affix + "ab" + affix + "y", "z" + affix + "ba" + affix + "w").toString());
+
+        assertEquals(org.sotorrent.stringsimilarity.edit.Base.optimalAlignmentDistance(t1, t2),
+                org.sotorrent.stringsimilarity.edit.Base.editScript(t1, t2).getDistance());
+        assertEquals(org.sotorrent.stringsimilarity.edit.Base.optimalAlignmentDistance(t2, t1),
+                org.sotorrent.stringsimilarity.edit.Base.editScript(t2, t1).getDistance());
+    }
+
+    @Test
+    void testBudget() {
+        StringBuilder long1 = new StringBuilder();
+        StringBuilder long2 = new StringBuilder();
+        for (int i=0; i<2000; i++) {
+            long1.append((char) ('a' + (i * 7) % 26));
+            long2.append((char) ('a' + (i * 11) % 26));
+        }
+
+        // 2000 x 2000 cells exceed the budget
+        BudgetedMetric budgeted = BudgetedMetric.of(
+                org.sotorrent.stringsimilarity.edit.Variants::levenshtein, Budget.cells(100000));
+        assertThrows(BudgetExceededException.class, () -> budgeted.compare(long1.toString(), long2.toString()));
+
+        BudgetedMetric.Result result = budgeted.withFallback(Variants::manhattanFourGramNormalized)
+                .compare(long1.toString(), long2.toString());
+        assertEquals(BudgetedMetric.Outcome.FALLBACK, result.getOutcome());
+        assertEquals(Variants.manhattanFourGramNormalized(long1.toString(), long2.toString()),
+                result.getSimilarity(), Similarity.DELTA_MAX);
+
+        // small inputs stay within the budget
+        result = budgeted.compare(str1, str2);
+        assertTrue(result.isExact());
+        assertEquals(levenshtein(str1, str2), result.getSimilarity(), Similarity.DELTA_MAX);
+
+        // the budget only applies within compare()
+        assertEquals(levenshtein(long1.toString(), long2.toString()),
+                BudgetedMetric.of(org.sotorrent.stringsimilarity.edit.Variants::levenshtein, Budget.UNLIMITED)
+                        .similarity(long1.toString(), long2.toString()), Similarity.DELTA_MAX);
+    }
+
+    @Test
+    void testEditDistanceThreshold() {
+        // levenshtein distance of "paul" and "pual": 2
+        assertEquals(2, org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance("paul", "pual", 2));
+        assertEquals(2, org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance("paul", "pual", 1)); // bound exceeded => maxDist+1
+        assertEquals(1, org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance("paul", "pual", 0));
+
+        // damerau-levenshtein and optimal string alignment distance of "paul" and "pual": 1 (transposition)
+        assertEquals(1, org.sotorrent.stringsimilarity.edit.Base.damerauLevenshteinDistance("paul", "pual", 1));
+        assertEquals(1, org.sotorrent.stringsimilarity.edit.Base.optimalAlignmentDistance("paul", "pual", 1));
+        assertEquals(1, org.sotorrent.stringsimilarity.edit.Base.optimalAlignmentDistance("paul", "pual", 0));
+
+        // length difference larger than bound
+        assertEquals(3, org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance("ab", "abcdef", 2));
+
+        // max length: 142
+        // levenshtein distance: 66
+        // similarity: 0.535...
+        assertTrue(org.sotorrent.stringsimilarity.edit.Base.levenshteinAtLeast(t1, t2, 0.5));
+        assertFalse(org.sotorrent.stringsimilarity.edit.Base.levenshteinAtLeast(t1, t2, 0.8));
+        assertEquals(levenshtein(t1, t2) >= (142.0-66.0)/142.0,
+                org.sotorrent.stringsimilarity.edit.Base.levenshteinAtLeast(t1, t2, (142.0-66.0)/142.0));
+
+        assertTrue(org.sotorrent.stringsimilarity.edit.Base.damerauLevenshteinAtLeast("paul", "pual", 0.75));
+        assertFalse(org.sotorrent.stringsimilarity.edit.Base.optimalAlignmentAtLeast("paul", "pual", 0.8));
+        assertTrue(org.sotorrent.stringsimilarity.edit.Base.optimalAlignmentAtLeast("", "", 1.0));
     }
 
     @Test
@@ -132,6 +395,28 @@ class SimilarityTest {
         // max length: 4
         // longest common subsequence: 3
         assertEquals(3.0/4.0, longestCommonSubsequence("2007", "2008"), Similarity.DELTA_MAX);
+
+        // more than 64 characters => multiple bit vectors
+        // max length: 142
+        // longest common subsequence: 100
+        assertEquals(100.0/142.0, longestCommonSubsequence(t1, t2), Similarity.DELTA_MAX);
+
+        // token IDs: [1, 2, 3, 4] and [1, 3, 2, 4]
+        // longest common subsequence: 3
+        assertEquals(3.0/4.0, org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequence(
+                new int[]{1, 2, 3, 4}, new int[]{1, 3, 2, 4}), Similarity.DELTA_MAX);
+        assertEquals(longestCommonSubsequence(str1, str2), org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequence(
+                Arrays.asList(str1.split("")), Arrays.asList(str2.split(""))), Similarity.DELTA_MAX);
+
+        // insert/delete distance: 62 + 69 - 2*60 = 11
+        assertEquals(11, org.sotorrent.stringsimilarity.edit.Base.insertDeleteDistance(str1, str2));
+        assertEquals(11, org.sotorrent.stringsimilarity.edit.Base.insertDeleteDistance(str1, str2, 11));
+        assertEquals(6, org.sotorrent.stringsimilarity.edit.Base.insertDeleteDistance(str1, str2, 5)); // bound exceeded => maxDist+1
+        // Myers engine within the expected number of differences and fallback to bit-parallel engine
+        assertEquals(60.0/69, org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequence(str1, str2, 20), Similarity.DELTA_MAX);
+        assertEquals(60.0/69, org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequence(str1, str2, 2), Similarity.DELTA_MAX);
+        assertEquals(3.0/4.0, org.sotorrent.stringsimilarity.edit.Base.longestCommonSubsequence(
+                new int[]{1, 2, 3, 4}, new int[]{1, 3, 2, 4}, 2), Similarity.DELTA_MAX);
     }
 
     // ************************ SET-BASED ************************
@@ -171,6 +456,44 @@ class SimilarityTest {
         assertTrue(MathUtils.greaterThan(fiveGramDice(tmp1, tmp2), 0.04));
     }
 
+    @Test
+    void testSortedSets() {
+        // sets of similar size (merge step, vectorized from 32 elements) and of very different size (galloping)
+        // multiples of 3 share every second element with set1, multiples of 5 every fifth
+        for (int size2 : new int[]{0, 3, 500, 501, 20000}) {
+            Set<Integer> set1 = new TreeSet<>();
+            Set<Integer> set2 = new TreeSet<>();
+            for (int i = 0; i < 500; i += 2) {
+                set1.add(i * 3);
+            }
+            for (int i = 0; i < size2; i++) {
+                set2.add(size2 % 2 == 0 ? i * 5 : i * 3);
+            }
+            int[] ids1 = set1.stream().mapToInt(Integer::intValue).toArray();
+            int[] ids2 = set2.stream().mapToInt(Integer::intValue).toArray();
+            long[] keys1 = Arrays.stream(ids1).asLongStream().map(id -> id - 1000).toArray();
+            long[] keys2 = Arrays.stream(ids2).asLongStream().map(id -> id - 1000).toArray();
+
+            double jaccard = org.sotorrent.stringsimilarity.set.Base.jaccard(set1, set2);
+            assertEquals(jaccard, org.sotorrent.stringsimilarity.set.Base.jaccard(ids1, ids2));
+            assertEquals(jaccard, org.sotorrent.stringsimilarity.set.Base.jaccard(keys2, keys1));
+            double dice = org.sotorrent.stringsimilarity.set.Base.dice(set1, set2);
+            assertEquals(dice, org.sotorrent.stringsimilarity.set.Base.dice(ids1, ids2));
+            assertEquals(dice, org.sotorrent.stringsimilarity.set.Base.dice(keys2, keys1));
+            double overlap = org.sotorrent.stringsimilarity.set.Base.overlap(set1, set2);
+            assertEquals(overlap, org.sotorrent.stringsimilarity.set.Base.overlap(ids1, ids2));
+            assertEquals(overlap, org.sotorrent.stringsimilarity.set.Base.overlap(keys2, keys1));
+        }
+
+        // 3 of 4 distinct tokens in common
+        TermDictionary dictionary = new TermDictionary();
+        int[] tokenSet1 = idSet(tokenIds("a b c a b", dictionary));
+        int[] tokenSet2 = idSet(tokenIds("c b a d", dictionary));
+        assertArrayEquals(new int[]{0, 1, 2}, tokenSet1);
+        assertEquals(3.0/4, org.sotorrent.stringsimilarity.set.Base.jaccard(tokenSet1, tokenSet2));
+        assertEquals(3.0/4, tokenJaccard("a b c a b", "c b a d"));
+    }
+
     @Test
     void testNGramSimilarityKondrak05(){
         // ("hall", "allo", "llow", "lowe", "lowo")
@@ -255,6 +578,11 @@ class SimilarityTest {
 
         Assertions.assertEquals(4.0 / 6, org.sotorrent.stringsimilarity.fingerprint.Variants.winnowingFourGramDice(s1, s2), Similarity.DELTA_MAX);
 
+        // fingerprint sequences: [1036785, 1052657, 1275113] and [1036785, 1055071, 1275113]
+        // longest common subsequence: 2, optimal alignment distance: 1 (substitution)
+        Assertions.assertEquals(2.0 / 3, org.sotorrent.stringsimilarity.fingerprint.Variants.winnowingFourGramLongestCommonSubsequence(s1, s2), Similarity.DELTA_MAX);
+        Assertions.assertEquals(2.0 / 3, org.sotorrent.stringsimilarity.fingerprint.Variants.winnowingFourGramOptimalAlignment(s1, s2), Similarity.DELTA_MAX);
+
         double sim = org.sotorrent.stringsimilarity.fingerprint.Variants.winnowingFourGramDice("public Node(int n)", "public Node(int v)");
         Assertions.assertEquals(1.0, sim, Similarity.DELTA_MAX);
 
@@ -265,4 +593,63 @@ class SimilarityTest {
         // input too short for default window size
         assertThrows(InputTooShortException.class, () -> org.sotorrent.stringsimilarity.fingerprint.Variants.winnowingFourGramDiceNormalized("a = [1,2,3]", "a = [1,2,20,5,99,70,35]"));
     }
+
+    @Test
+    void testAnchoredAlignment() {
+        String code1 = "public static void main(String[] args) { System.out.println(\"Hello\"); return; }";
+        String code2 = "public static void main(String[] argv) { System.out.println(\"Hello\"); return; }";
+
+        // anchors cover everything except the substituted character
+        AnchoredAlignment alignment = AnchoredAlignment.align(code1, code2, 4);
+        assertTrue(alignment.getAnchorCount() > 0);
+        assertEquals(1, alignment.getLevenshteinDistance());
+        assertEquals(code1.length() - 1, alignment.getLongestCommonSubsequenceLength());
+        assertEquals((double) (code1.length() - 1) / code1.length(), alignment.getCoverage1(), Similarity.DELTA_MAX);
+        assertEquals(org.sotorrent.stringsimilarity.edit.Base.levenshteinDistance(code1, code2),
+                alignment.getLevenshteinDistance());
+        assertEquals(org.sotorrent.stringsimilarity.fingerprint.Default.winnowingNGramAnchoredLevenshtein(code1, code2),
+                alignment.getLevenshteinSimilarity(), Similarity.DELTA_MAX);
+
+        // too short for a fingerprint -> exact comparison without anchors
+        alignment = AnchoredAlignment.align("ab", "", 4);
+        assertEquals(0, alignment.getAnchorCount());
+        assertEquals(2, alignment.getLevenshteinDistance());
+        assertEquals(1.0, AnchoredAlignment.align("", "", 4).getLongestCommonSubsequenceSimilarity(), Similarity.DELTA_MAX);
+    }
+
+    // full DP rows, no bit-parallel kernels
+    private static int referenceLevenshteinDistance(CharSequence str1, CharSequence str2) {
+        int[] previous = new int[str2.length() + 1];
+        int[] current = new int[str2.length() + 1];
+        for (int j=0; j<=str2.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i=1; i<=str1.length(); i++) {
+            current[0] = i;
+            for (int j=1; j<=str2.length(); j++) {
+                int cost = str1.charAt(i-1) == str2.charAt(j-1) ? 0 : 1;
+                current[j] = Math.min(previous[j-1] + cost, Math.min(previous[j], current[j-1]) + 1);
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[str2.length()];
+    }
+
+    private static int referenceLongestCommonSubsequenceLength(CharSequence str1, CharSequence str2) {
+        int[] previous = new int[str2.length() + 1];
+        int[] current = new int[str2.length() + 1];
+        for (int i=1; i<=str1.length(); i++) {
+            for (int j=1; j<=str2.length(); j++) {
+                current[j] = str1.charAt(i-1) == str2.charAt(j-1)
+                        ? previous[j-1] + 1
+                        : Math.max(previous[j], current[j-1]);
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[str2.length()];
+    }
 }
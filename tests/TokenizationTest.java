@@ -1,15 +1,32 @@
 import com.google.common.collect.Multiset;
 import org.junit.jupiter.api.Test;
+import org.sotorrent.stringsimilarity.KeyMultiset;
+import org.sotorrent.stringsimilarity.LongIntCounter;
+import org.sotorrent.stringsimilarity.NGramView;
+import org.sotorrent.stringsimilarity.ShingleView;
+import org.sotorrent.stringsimilarity.StreamingTokenizer;
+import org.sotorrent.stringsimilarity.TermDictionary;
+import org.sotorrent.stringsimilarity.TokenView;
 import org.sotorrent.util.collections.MultisetCollector;
 import org.sotorrent.util.exceptions.InputTooShortException;
 
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
+import static org.sotorrent.stringsimilarity.Normalization.Mode;
+import static org.sotorrent.stringsimilarity.Normalization.normalizeForEdit;
 import static org.sotorrent.stringsimilarity.Normalization.normalizeForNGram;
 import static org.sotorrent.stringsimilarity.Normalization.normalizeForShingle;
 import static org.sotorrent.stringsimilarity.Tokenization.*;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -80,6 +97,32 @@ class TokenizationTest {
     }
 
 
+    @Test
+    void testNGramKeys() {
+        String normalizedStr = normalizeForNGram("int i; int i;");
+
+        // "inti", "ntii", "tiin", "iint", "inti": one key per nGram, equal keys for equal nGrams
+        long[] keys = nGramKeys(normalizedStr);
+        assertEquals(5, keys.length);
+        assertEquals(keys[0], keys[4]);
+        assertEquals(4, Arrays.stream(keys).distinct().count());
+        // packed exactly: 16 bits per char
+        assertEquals(((long) 'i' << 48) | ((long) 'n' << 32) | ((long) 't' << 16) | 'i', keys[0]);
+
+        KeyMultiset keyMultiset = nGramKeyMultiset(normalizedStr, NGRAM_SIZE);
+        assertEquals(5, keyMultiset.size());
+        assertEquals(4, keyMultiset.distinctCount());
+        assertEquals(2, keyMultiset.count(keys[0]));
+        assertEquals(nGramSet(normalizedStr).size(), nGramKeySet(normalizedStr, NGRAM_SIZE).length);
+
+        // hashed keys for larger nGrams, padding as in nGramList
+        assertEquals(nGramList("intiinti", 5, true).size(), nGramKeys("intiinti", 5, true).length);
+        assertEquals(nGramSet("intiinti", 5, true).size(), nGramKeySet("intiinti", 5, true).length);
+
+        assertThrows(InputTooShortException.class, () -> nGramKeys("abc"));
+    }
+
+
     // ********** SHINGLE TOKENIZATION **********
 
     @Test
@@ -112,4 +155,183 @@ class TokenizationTest {
         Set<String> expectedShingleSet = new HashSet<>(expectedShingleList);
         assertThat(shingleSet, is(expectedShingleSet));
     }
+
+    @Test
+    void testKeyCounting() {
+        LongIntCounter counter = new LongIntCounter();
+        for (long key = -500; key < 500; key++) {
+            counter.add(key);
+            if (key % 2 == 0) {
+                counter.add(key, 2);
+            }
+        }
+        assertEquals(1000, counter.distinctCount());
+        assertEquals(2000, counter.size());
+        assertEquals(3, counter.count(0));
+        assertEquals(1, counter.count(-1));
+        assertEquals(0, counter.count(Long.MIN_VALUE));
+
+        // frozen: sorted distinct keys
+        KeyMultiset keyMultiset = counter.freeze();
+        assertEquals(1000, keyMultiset.distinctCount());
+        assertEquals(2000, keyMultiset.size());
+        assertEquals(-500, keyMultiset.keys()[0]);
+        assertEquals(499, keyMultiset.keys()[999]);
+        assertEquals(3, keyMultiset.count(-2));
+
+        // token and shingle keys count like the string multisets
+        List<String> tokens = tokens(normalizeForShingle("int i; int i; String str"));
+        KeyMultiset tokenKeyMultiset = tokenKeyMultiset(tokens);
+        assertEquals(6, tokenKeyMultiset.size());
+        assertEquals(4, tokenKeyMultiset.distinctCount());
+        assertEquals(2, tokenKeyMultiset.count(hashToken("int")));
+        KeyMultiset shingleKeyMultiset = shingleKeyMultiset(tokens, SHINGLE_SIZE);
+        assertEquals(shingleMultiset(tokens).size(), shingleKeyMultiset.size());
+        assertEquals(shingleMultiset(tokens).elementSet().size(), shingleKeyMultiset.distinctCount());
+
+        assertThrows(InputTooShortException.class, () -> shingleKeyMultiset(tokens.subList(0, 1), SHINGLE_SIZE));
+    }
+
+    @Test
+    void testViews() {
+        // nGrams as offsets, padding chars outside of the source
+        NGramView nGrams = nGramView("intiinti", 5, true);
+        assertEquals(-4, nGrams.getFirstOffset());
+        assertEquals(nGramList("intiinti", 5, true),
+                nGrams.offsets().mapToObj(nGrams::toString).collect(Collectors.toList()));
+        assertEquals(PADDING_CHAR.charAt(0), nGrams.charAt(-1));
+        assertEquals(nGrams.size(), nGrams.spliterator().getExactSizeIfKnown());
+        assertThrows(InputTooShortException.class, () -> nGramView("abc"));
+
+        // tokens as spans, empty tokens are skipped
+        TokenView tokens = tokenView("  int i;  String str ");
+        assertEquals(4, tokens.size());
+        assertEquals(2, tokens.getOffset(0));
+        assertEquals(3, tokens.getLength(0));
+        assertEquals(tokens("  int i;  String str "), tokens.toList());
+
+        // shingles as windows over the tokens
+        ShingleView shingles = shingleView(tokens);
+        assertEquals(3, shingles.size());
+        assertEquals(shingleList(tokens.toList()),
+                shingles.offsets().mapToObj(i -> shingles.toString(i, DEFAULT_SEPARATOR)).collect(Collectors.toList()));
+        assertThrows(InputTooShortException.class, () -> shingleView(tokenView("int"), SHINGLE_SIZE));
+    }
+
+    @Test
+    void testShingleKeys() {
+        List<String> tokens = tokens(normalizeForShingle("int i; int i; String str"));
+
+        // "int i", "i int", "int i", "i string", "string str": one key per shingle, equal keys for equal shingles
+        long[] keys = shingleKeys(tokens, SHINGLE_SIZE);
+        assertEquals(5, keys.length);
+        assertEquals(keys[0], keys[2]);
+        assertEquals(shingleSet(tokens).size(), shingleKeySet(tokens, SHINGLE_SIZE).length);
+
+        // rolling hash: the key of a window does not depend on the tokens before it
+        for (int shingleSize = 1; shingleSize <= 3; shingleSize++) {
+            long[] windowKeys = shingleKeys(tokens, shingleSize);
+            for (int i = 0; i < windowKeys.length; i++) {
+                assertEquals(shingleKeys(tokens.subList(i, i + shingleSize), shingleSize)[0], windowKeys[i]);
+            }
+        }
+
+        assertThrows(InputTooShortException.class, () -> shingleKeys(tokens, 7));
+    }
+
+    @Test
+    void testTermIds() {
+        TermDictionary dictionary = new TermDictionary();
+
+        // dense IDs in order of first occurrence, equal tokens get equal IDs
+        int[] ids1 = tokenIds("int i int i String str", dictionary);
+        int[] ids2 = tokenIds("String i", dictionary);
+        assertArrayEquals(new int[]{0, 1, 0, 1, 2, 3}, ids1);
+        assertArrayEquals(new int[]{2, 1}, ids2);
+        assertEquals(4, dictionary.size());
+        assertEquals(hashToken("int"), dictionary.getKey(0));
+        assertEquals(3, dictionary.getFrequency(1));
+        assertEquals(TermDictionary.UNKNOWN, dictionary.lookup(hashToken("unknown")));
+
+        // most frequent terms get the smallest IDs
+        TermDictionary sorted = dictionary.sortedByFrequency();
+        assertEquals(0, sorted.lookup(hashToken("i")));
+        assertEquals(1, sorted.lookup(hashToken("int")));
+        assertEquals(dictionary.size(), sorted.size());
+
+        int[] nGramIds = nGramIds(normalizeForNGram("int i; int i;"), new TermDictionary());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 0}, nGramIds);
+
+        // thread-safe interning
+        TermDictionary shared = new TermDictionary();
+        IntStream.range(0, 10000).parallel().forEach(i -> shared.intern(i % 100));
+        assertEquals(100, shared.size());
+        for (int id = 0; id < shared.size(); id++) {
+            assertEquals(100, shared.getFrequency(id));
+        }
+    }
+
+    @Test
+    void testStreamingTokenization() {
+        // several chunks, normalized on the fly
+        StringBuilder longStr = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longStr.append(str).append(" Größe ").append(i);
+        }
+        String input = longStr.toString();
+
+        List<String> streamedTokens = new ArrayList<>();
+        StreamingTokenizer.of(new StringReader(input), Mode.EDIT)
+                .forEachToken(token -> streamedTokens.add(token.toString()));
+        assertEquals(tokens(normalizeForEdit(input)), streamedTokens);
+
+        KeyMultiset nGramProfile = nGramKeyMultiset(normalizeForNGram(input), NGRAM_SIZE, true);
+        KeyMultiset streamedProfile =
+                StreamingTokenizer.of(CharBuffer.wrap(input), Mode.NGRAM).nGramKeyMultiset(NGRAM_SIZE, true);
+        assertArrayEquals(nGramProfile.keys(), streamedProfile.keys());
+        assertArrayEquals(nGramProfile.counts(), streamedProfile.counts());
+
+        ByteBuffer bytes = ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8));
+        long[] streamedShingleKeys = StreamSupport.longStream(
+                StreamingTokenizer.ofUtf8(bytes, Mode.SHINGLE).shingleKeys(SHINGLE_SIZE), false).toArray();
+        assertArrayEquals(shingleKeys(shingleView(tokenView(normalizeForShingle(input)))), streamedShingleKeys);
+
+        assertThrows(InputTooShortException.class,
+                () -> StreamingTokenizer.of(new StringReader("ab c"), Mode.NGRAM).nGramKeyMultiset(NGRAM_SIZE, true));
+        StreamingTokenizer tokenizer = StreamingTokenizer.of(new StringReader(str), Mode.NONE);
+        tokenizer.tokenKeyMultiset();
+        assertThrows(IllegalStateException.class, tokenizer::tokenKeyMultiset);
+    }
+
+    @Test
+    void testParallelProfiles() {
+        StringBuilder longStr = new StringBuilder();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            longStr.append("token").append(random.nextInt(500)).append(i % 7 == 0 ? "  " : " ");
+        }
+        String input = longStr.toString();
+
+        // parallel above the threshold, identical to counting sequentially
+        for (boolean padding : new boolean[]{true, false}) {
+            KeyMultiset nGramProfile = KeyMultiset.of(nGramKeys(input, NGRAM_SIZE, padding));
+            KeyMultiset parallelProfile = nGramKeyMultisetParallel(input, NGRAM_SIZE, padding);
+            assertArrayEquals(nGramProfile.keys(), parallelProfile.keys());
+            assertArrayEquals(nGramProfile.counts(), parallelProfile.counts());
+            assertEquals(nGramProfile.size(), parallelProfile.size());
+            assertArrayEquals(parallelProfile.keys(), nGramKeyMultiset(input, NGRAM_SIZE, padding).keys());
+        }
+
+        ShingleView shingles = shingleView(tokenView(input));
+        KeyMultiset shingleProfile = KeyMultiset.of(shingleKeys(shingles));
+        KeyMultiset parallelProfile = shingleKeyMultisetParallel(shingles);
+        assertArrayEquals(shingleProfile.keys(), parallelProfile.keys());
+        assertArrayEquals(shingleProfile.counts(), parallelProfile.counts());
+        assertArrayEquals(parallelProfile.counts(), shingleKeyMultiset(shingles).counts());
+
+        // below the segment size
+        String str = "Lorem ipsum dolor sit amet";
+        assertArrayEquals(nGramKeyMultiset(str, NGRAM_SIZE, true).keys(),
+                nGramKeyMultisetParallel(str, NGRAM_SIZE, true).keys());
+    }
 }